@@ -0,0 +1,215 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.lib.BenchmarkBaseline;
+import org.orecruncher.lib.expression.IDynamicVariant;
+
+import net.minecraft.init.Bootstrap;
+
+/**
+ * Compares the per check cost of the interpreter against compiled conditions
+ * for the conditions found in the bundled data/*.json files. There is no
+ * client world so the variables are held at fixed values rather than read from
+ * their suppliers. Every variable is marked changed before each sweep over the
+ * conditions so that the compiled timing includes evaluating the trees rather
+ * than only the memoization check.
+ *
+ * Before timing, the compiled conditions are checked against the interpreter
+ * over a number of random variable assignments. Any disagreement is reported
+ * and the run exits with a non-zero status.
+ *
+ * Run with "gradlew benchmarkConditions", optionally with
+ * -PbenchmarkArgs="dataDirectory iterations".
+ */
+public final class ConditionBenchmark {
+
+	private static final Pattern CONDITIONS = Pattern.compile("\"conditions\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+	private static final String DEFAULT_DATA = "src/main/resources/assets/dsurround/dsurround/data";
+	private static final Pattern STRINGS = Pattern.compile("'([^']*)'");
+	private static final Pattern NUMBERS = Pattern.compile("(?<![\\w.])(\\d+(?:\\.\\d+)?)");
+	private static final int WARMUP = 3;
+	private static final int PARITY_ROUNDS = 500;
+
+	private static volatile boolean sink;
+
+	public static void main(final String[] args) throws IOException {
+		Bootstrap.register();
+
+		final File dir = new File(args.length > 0 ? args[0] : DEFAULT_DATA);
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		final List<String> conditions = new ArrayList<>(collect(dir));
+		final ExpressionEngine engine = ExpressionEngine.instance();
+		final List<LazyVariant> variables = new ArrayList<>();
+		for (final IDynamicVariant v : engine.getVariables())
+			if (v instanceof LazyVariant) {
+				((LazyVariant) v).hold();
+				variables.add((LazyVariant) v);
+			}
+
+		final List<ICondition> compiled = new ArrayList<>();
+		int compiledCount = 0;
+		for (final String c : conditions) {
+			compiled.add(engine.compile(c));
+			if (engine.isCompiled(c))
+				compiledCount++;
+		}
+
+		System.out.println(String.format(Locale.ROOT, "%d distinct conditions, %d compiled, %d interpreted",
+				conditions.size(), compiledCount, conditions.size() - compiledCount));
+
+		final int mismatches = parity(engine, conditions, compiled, variables);
+		System.out.println(String.format(Locale.ROOT, "parity: %d rounds, %d mismatches", PARITY_ROUNDS, mismatches));
+		if (mismatches > 0)
+			System.exit(1);
+
+		final int checks = 2000;
+		long interpreted = 0;
+		long typed = 0;
+		for (int i = 0; i < WARMUP + iterations; i++) {
+			long start = System.nanoTime();
+			boolean result = false;
+			for (int n = 0; n < checks; n++) {
+				touch(variables);
+				for (int c = 0; c < conditions.size(); c++)
+					result ^= engine.check(conditions.get(c));
+			}
+			final long t1 = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int n = 0; n < checks; n++) {
+				touch(variables);
+				for (int c = 0; c < compiled.size(); c++)
+					result ^= compiled.get(c).check();
+			}
+			final long t2 = System.nanoTime() - start;
+			sink = result;
+
+			if (i >= WARMUP) {
+				interpreted += t1;
+				typed += t2;
+			}
+		}
+
+		final double total = (double) iterations * checks * conditions.size();
+		System.out.println(String.format(Locale.ROOT, "interpreter %8.1f ns/check", interpreted / total));
+		System.out.println(String.format(Locale.ROOT, "compiled    %8.1f ns/check", typed / total));
+
+		final BenchmarkBaseline baseline = new BenchmarkBaseline("conditions");
+		baseline.reportOnly("compiled ns/check", typed / total);
+		baseline.reportOnly("compiled to interpreter ratio", (double) typed / interpreted);
+		if (baseline.finish() > 0)
+			System.exit(1);
+	}
+
+	private static void touch(@Nonnull final List<LazyVariant> variables) {
+		for (int i = 0; i < variables.size(); i++)
+			variables.get(i).touch();
+	}
+
+	/**
+	 * Assigns random values to the variables, drawing strings and numbers from
+	 * the literals the conditions use so that comparisons have a chance of
+	 * matching, and compares the interpreter with the compiled conditions.
+	 * Returns the number of disagreements.
+	 */
+	private static int parity(@Nonnull final ExpressionEngine engine, @Nonnull final List<String> conditions,
+			@Nonnull final List<ICondition> compiled, @Nonnull final List<LazyVariant> variables) {
+		final List<String> strings = new ArrayList<>(literals(conditions, STRINGS));
+		strings.add("");
+		final List<Float> numbers = new ArrayList<>();
+		for (final String n : literals(conditions, NUMBERS)) {
+			final float v = Float.parseFloat(n);
+			numbers.add(v);
+			numbers.add(-v);
+			numbers.add(v + 1);
+		}
+		numbers.add(0F);
+
+		final Random random = new Random(1L);
+		int mismatches = 0;
+		for (int round = 0; round < PARITY_ROUNDS; round++) {
+			for (final LazyVariant v : variables) {
+				if (v instanceof LazyVariant.LazyBoolean)
+					((LazyVariant.LazyBoolean) v).hold(random.nextBoolean());
+				else if (v instanceof LazyVariant.LazyNumber)
+					((LazyVariant.LazyNumber) v).hold(numbers.get(random.nextInt(numbers.size())));
+				else if (v instanceof LazyVariant.LazyString)
+					((LazyVariant.LazyString) v).hold(strings.get(random.nextInt(strings.size())));
+			}
+
+			for (int c = 0; c < conditions.size(); c++) {
+				final boolean expected = engine.check(conditions.get(c));
+				if (compiled.get(c).check() != expected) {
+					if (mismatches++ < 10)
+						System.out.println(String.format(Locale.ROOT, "mismatch (interpreter %s): %s", expected,
+								conditions.get(c)));
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	@Nonnull
+	private static Set<String> literals(@Nonnull final List<String> conditions, @Nonnull final Pattern pattern) {
+		final Set<String> result = new LinkedHashSet<>();
+		for (final String c : conditions) {
+			final Matcher m = pattern.matcher(c);
+			while (m.find())
+				result.add(m.group(1));
+		}
+		return result;
+	}
+
+	@Nonnull
+	private static Set<String> collect(@Nonnull final File dir) throws IOException {
+		final Set<String> result = new LinkedHashSet<>();
+		final File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+		if (files == null)
+			throw new IOException("Unable to read " + dir.getAbsolutePath());
+		for (final File f : files) {
+			final String text = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+			final Matcher m = CONDITIONS.matcher(text);
+			while (m.find())
+				if (!m.group(1).isEmpty())
+					result.add(m.group(1).replace("\\\"", "\""));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,164 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Collects the metrics reported by a benchmark run and compares them against a
+ * baseline from an earlier run so that a regression fails the build. Only
+ * metrics that do not depend on the speed of the machine, such as bytes
+ * allocated per update, are checked. Timings are recorded and shown next to
+ * their baseline but never fail the build since the baseline may come from a
+ * different machine. Driven by system properties, which the gradle benchmark
+ * tasks set from project properties:
+ *
+ * - benchmark.baseline: directory holding the baseline results. Metrics with
+ * no baseline value are reported but not checked.
+ *
+ * - benchmark.results: directory the results of this run are written to, for
+ * use as a later baseline.
+ *
+ * - benchmark.tolerance: fraction a metric may be worse than its baseline
+ * before it counts as a regression. Defaults to 0.3.
+ */
+public final class BenchmarkBaseline {
+
+	private static final double DEFAULT_TOLERANCE = 0.3D;
+
+	private final String suite;
+	private final Map<String, Double> results = new LinkedHashMap<>();
+	private final Map<String, Check> checks = new LinkedHashMap<>();
+
+	// How a metric is compared with its baseline
+	private enum Check {
+		HIGHER_IS_BETTER, LOWER_IS_BETTER, REPORT_ONLY
+	}
+
+	public BenchmarkBaseline(@Nonnull final String suite) {
+		this.suite = suite;
+	}
+
+	public void higherIsBetter(@Nonnull final String name, final double value) {
+		record(name, value, Check.HIGHER_IS_BETTER);
+	}
+
+	public void lowerIsBetter(@Nonnull final String name, final double value) {
+		record(name, value, Check.LOWER_IS_BETTER);
+	}
+
+	/**
+	 * Records a metric that is shown against its baseline but never counts as a
+	 * regression. Used for timings.
+	 */
+	public void reportOnly(@Nonnull final String name, final double value) {
+		record(name, value, Check.REPORT_ONLY);
+	}
+
+	private void record(@Nonnull final String name, final double value, @Nonnull final Check check) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			return;
+		final String key = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_").replaceAll("^_|_$", "");
+		this.results.put(key, value);
+		this.checks.put(key, check);
+	}
+
+	/**
+	 * Writes the results if requested and compares them with the baseline.
+	 * Returns the number of regressions.
+	 */
+	public int finish() throws IOException {
+		final String resultsDir = System.getProperty("benchmark.results");
+		if (resultsDir != null)
+			write(new File(resultsDir, this.suite + ".properties"));
+
+		final String baselineDir = System.getProperty("benchmark.baseline");
+		if (baselineDir == null)
+			return 0;
+
+		final File file = new File(baselineDir, this.suite + ".properties");
+		if (!file.exists()) {
+			System.out.println("No baseline at " + file.getPath() + "; nothing to compare against");
+			return 0;
+		}
+
+		final double tolerance = Double
+				.parseDouble(System.getProperty("benchmark.tolerance", Double.toString(DEFAULT_TOLERANCE)));
+		final Properties baseline = new Properties();
+		try (final InputStream in = new FileInputStream(file)) {
+			baseline.load(in);
+		}
+
+		int regressions = 0;
+		for (final Map.Entry<String, Double> e : this.results.entrySet()) {
+			final String text = baseline.getProperty(e.getKey());
+			if (text == null) {
+				System.out.println(String.format(Locale.ROOT, "  %-48s %12.1f (no baseline)", e.getKey(), e.getValue()));
+				continue;
+			}
+			final double base = Double.parseDouble(text);
+			final double value = e.getValue();
+			final Check check = this.checks.get(e.getKey());
+			final String status;
+			if (check == Check.REPORT_ONLY) {
+				status = "(report only)";
+			} else if (check == Check.HIGHER_IS_BETTER ? value < base * (1D - tolerance)
+					: value > base * (1D + tolerance)) {
+				status = "REGRESSION";
+				regressions++;
+			} else {
+				status = "ok";
+			}
+			System.out.println(String.format(Locale.ROOT, "  %-48s %12.1f baseline %12.1f %s", e.getKey(), value,
+					base, status));
+		}
+
+		System.out.println(String.format(Locale.ROOT, "%s: %d regressions against %s (tolerance %.0f%%)",
+				this.suite, regressions, file.getPath(), tolerance * 100D));
+		return regressions;
+	}
+
+	private void write(@Nonnull final File file) throws IOException {
+		final File dir = file.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs())
+			throw new IOException("Unable to create " + dir.getPath());
+		final Properties props = new Properties();
+		for (final Map.Entry<String, Double> e : this.results.entrySet())
+			props.setProperty(e.getKey(), Double.toString(e.getValue()));
+		try (final OutputStream out = new FileOutputStream(file)) {
+			props.store(out, this.suite + " benchmark results");
+		}
+	}
+}
@@ -0,0 +1,415 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.math.BlockPos;
+
+import org.orecruncher.dsurround.lib.BenchmarkBaseline;
+
+/**
+ * Headless benchmarks for the scanner hot paths. Runs on a plain JVM against a
+ * SyntheticWorld and reports blocks per millisecond and bytes allocated per
+ * update for:
+ *
+ * - CuboidScanner full scans, with and without the section index replay
+ * - CuboidScanner delta updates as the player walks
+ * - RandomScanner updates for both sampling modes
+ * - ComplementsPointIterator over a one block shift
+ *
+ * It also reports coverage of the RandomScanner sampling modes at equal probe
+ * counts: distinct positions probed and how far the per position counts stray
+ * from the expected distribution (chi-squared per cell, lower is more even).
+ *
+ * Run with "gradlew benchmark", optionally with -PbenchmarkArgs="iterations range".
+ */
+public final class ScannerBenchmark {
+
+	private static final BlockPos ORIGIN = new BlockPos(0, 64, 0);
+	private static final int WARMUP = 3;
+
+	private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+	private static final BenchmarkBaseline BASELINE = new BenchmarkBaseline("scanner");
+
+	// Probes per tick of RandomBlockEffectScanner with random sampling, and the
+	// number of ticks over which the sampling modes are compared for coverage
+	private static final int RANDOM_PROBES = 667;
+	private static final int EQUIVALENCE_TICKS = 20;
+
+	private final int iterations;
+	private final int range;
+
+	private ScannerBenchmark(final int iterations, final int range) {
+		this.iterations = iterations;
+		this.range = range;
+	}
+
+	public static void main(final String[] args) throws IOException {
+		Bootstrap.register();
+
+		final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		final int range = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+
+		final ScannerBenchmark bench = new ScannerBenchmark(iterations, range);
+		System.out.println(String.format(Locale.ROOT, "Scanner benchmark: %d iterations, range %d", iterations, range));
+		bench.cuboidFullScan(false);
+		bench.cuboidFullScan(true);
+		bench.cuboidDelta();
+		bench.randomScan(RandomScanner.Sampling.RANDOM);
+		bench.randomScan(RandomScanner.Sampling.LOW_DISCREPANCY);
+		bench.complements();
+		bench.coverage(RandomBlockRange.NEAR);
+		bench.coverage(RandomBlockRange.FAR);
+
+		if (BASELINE.finish() > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Full scan of the volume. A new world reference on each pass forces a cold
+	 * scan; otherwise the locus bounces between two spots so that the section
+	 * index is replayed.
+	 */
+	private void cuboidFullScan(final boolean replay) {
+		final SyntheticWorld world = new SyntheticWorld(1L);
+		final SyntheticWorld.Locus locus = new SyntheticWorld.Locus(world, ORIGIN);
+		final BenchCuboidScanner scanner = new BenchCuboidScanner(locus, this.range);
+		final BlockPos away = ORIGIN.add(this.range * 2 + 1, 0, 0);
+
+		final Measurement m = new Measurement();
+		for (int i = 0; i < WARMUP + this.iterations; i++) {
+			if (replay)
+				locus.setCenter((i & 1) == 0 ? ORIGIN : away);
+			else
+				world.invalidate();
+
+			if (i == WARMUP)
+				m.reset();
+			m.begin();
+			do {
+				scanner.update();
+				m.updates++;
+			} while (!scanner.isScanFinished());
+			m.end(scanner.getVolume());
+		}
+		m.report(replay ? "CuboidScanner full (index replay)" : "CuboidScanner full (cold)");
+	}
+
+	/**
+	 * Player walking one block per update after a completed full scan.
+	 */
+	private void cuboidDelta() {
+		final SyntheticWorld world = new SyntheticWorld(2L);
+		final SyntheticWorld.Locus locus = new SyntheticWorld.Locus(world, ORIGIN);
+		final BenchCuboidScanner scanner = new BenchCuboidScanner(locus, this.range);
+		do {
+			scanner.update();
+		} while (!scanner.isScanFinished());
+
+		final int steps = 256;
+		final long slab = (long) scanner.ySize * scanner.zSize;
+		final Measurement m = new Measurement();
+		int x = 0;
+		for (int i = 0; i < WARMUP + this.iterations; i++) {
+			if (i == WARMUP)
+				m.reset();
+			m.begin();
+			for (int s = 0; s < steps; s++) {
+				locus.setCenter(ORIGIN.add(++x, 0, 0));
+				scanner.update();
+				m.updates++;
+			}
+			m.end(slab * steps);
+		}
+		m.report("CuboidScanner delta (walking)");
+	}
+
+	private void randomScan(@Nonnull final RandomScanner.Sampling sampling) {
+		final SyntheticWorld world = new SyntheticWorld(3L);
+		final SyntheticWorld.Locus locus = new SyntheticWorld.Locus(world, ORIGIN);
+		final BenchRandomScanner scanner = new BenchRandomScanner(locus, RandomBlockRange.FAR.range, RANDOM_PROBES,
+				null);
+		scanner.setSampling(sampling);
+
+		final int ticks = 1000;
+		final Measurement m = new Measurement();
+		for (int i = 0; i < WARMUP + this.iterations; i++) {
+			if (i == WARMUP)
+				m.reset();
+			m.begin();
+			for (int t = 0; t < ticks; t++) {
+				scanner.update();
+				m.updates++;
+			}
+			m.end((long) scanner.getBlocksPerTick() * ticks);
+		}
+		m.report("RandomScanner " + sampling);
+	}
+
+	private void complements() {
+		final Cuboid volume = new Cuboid(new BlockPos[] { ORIGIN.add(-this.range, -this.range, -this.range),
+				ORIGIN.add(this.range, this.range, this.range) });
+		final Cuboid shifted = new Cuboid(new BlockPos[] { ORIGIN.add(1 - this.range, -this.range, 1 - this.range),
+				ORIGIN.add(this.range + 1, this.range, this.range + 1) });
+		final Cuboid intersect = volume.intersection(shifted);
+
+		final int passes = 256;
+		final Measurement m = new Measurement();
+		long sink = 0;
+		for (int i = 0; i < WARMUP + this.iterations; i++) {
+			if (i == WARMUP)
+				m.reset();
+			m.begin();
+			long points = 0;
+			for (int p = 0; p < passes; p++) {
+				final ComplementsPointIterator itr = new ComplementsPointIterator(shifted, intersect);
+				for (BlockPos point = itr.next(); point != null; point = itr.next()) {
+					sink += point.getY();
+					points++;
+				}
+				m.updates++;
+			}
+			m.end(points);
+		}
+		m.report("ComplementsPointIterator");
+		if (sink == 42)
+			System.out.println();
+	}
+
+	/**
+	 * Compares the sampling modes at equal probe counts.
+	 */
+	private void coverage(@Nonnull final RandomBlockRange which) {
+		final int r = which.range;
+		final int side = r * 2 - 1;
+		final int cells = side * side * side;
+
+		for (final int ticks : new int[] { 1, 4, 16, 64 }) {
+			final StringBuilder builder = new StringBuilder();
+			builder.append(String.format(Locale.ROOT, "Coverage range %d, %d ticks:", r, ticks));
+			for (final RandomScanner.Sampling sampling : RandomScanner.Sampling.values()) {
+				final int[] counts = new int[cells];
+				final SyntheticWorld world = new SyntheticWorld(4L);
+				final SyntheticWorld.Locus locus = new SyntheticWorld.Locus(world, ORIGIN);
+				final BenchRandomScanner scanner = new BenchRandomScanner(locus, r, RANDOM_PROBES, pos -> {
+					final int dx = pos.getX() - ORIGIN.getX() + r - 1;
+					final int dy = pos.getY() - ORIGIN.getY() + r - 1;
+					final int dz = pos.getZ() - ORIGIN.getZ() + r - 1;
+					counts[(dx * side + dy) * side + dz]++;
+				});
+				scanner.setSampling(sampling);
+				for (int t = 0; t < ticks; t++)
+					scanner.update();
+
+				final long probes = (long) scanner.getBlocksPerTick() * ticks;
+				int distinct = 0;
+				double chi2 = 0;
+				for (int dx = 1 - r; dx < r; dx++)
+					for (int dy = 1 - r; dy < r; dy++)
+						for (int dz = 1 - r; dz < r; dz++) {
+							final int c = counts[((dx + r - 1) * side + (dy + r - 1)) * side + (dz + r - 1)];
+							if (c > 0)
+								distinct++;
+							final double expected = probes * triangular(dx, r) * triangular(dy, r)
+									* triangular(dz, r);
+							final double d = c - expected;
+							chi2 += d * d / expected;
+						}
+				builder.append(String.format(Locale.ROOT, " %s distinct %d/%d chi2/cell %.3f;", sampling, distinct,
+						probes, chi2 / cells));
+			}
+			System.out.println(builder.toString());
+		}
+
+		// Smallest low discrepancy probe count that reaches the number of distinct
+		// positions the random draws reach at their probe count.
+		final int target = distinct(RandomScanner.Sampling.RANDOM, r, RANDOM_PROBES, EQUIVALENCE_TICKS);
+		int lo = 1;
+		int hi = RANDOM_PROBES;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (distinct(RandomScanner.Sampling.LOW_DISCREPANCY, r, mid, EQUIVALENCE_TICKS) >= target)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		System.out.println(String.format(Locale.ROOT,
+				"Coverage range %d, %d ticks: LOW_DISCREPANCY at %d probes matches RANDOM at %d (%d distinct)", r,
+				EQUIVALENCE_TICKS, lo, RANDOM_PROBES, target));
+	}
+
+	/**
+	 * Number of distinct positions probed over the ticks.
+	 */
+	private static int distinct(@Nonnull final RandomScanner.Sampling sampling, final int r, final int probes,
+			final int ticks) {
+		final int side = r * 2 - 1;
+		final BitSet seen = new BitSet(side * side * side);
+		final SyntheticWorld world = new SyntheticWorld(4L);
+		final SyntheticWorld.Locus locus = new SyntheticWorld.Locus(world, ORIGIN);
+		final BenchRandomScanner scanner = new BenchRandomScanner(locus, r, probes, pos -> {
+			final int dx = pos.getX() - ORIGIN.getX() + r - 1;
+			final int dy = pos.getY() - ORIGIN.getY() + r - 1;
+			final int dz = pos.getZ() - ORIGIN.getZ() + r - 1;
+			seen.set((dx * side + dy) * side + dz);
+		});
+		scanner.setSampling(sampling);
+		for (int t = 0; t < ticks; t++)
+			scanner.update();
+		return seen.cardinality();
+	}
+
+	// Probability of offset v for the difference of two uniform values in
+	// [0, range), which is what RandomScanner samples.
+	private static double triangular(final int v, final int range) {
+		return (double) (range - Math.abs(v)) / ((double) range * range);
+	}
+
+	private static long allocatedBytes() {
+		return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			final com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+			if (sun.isThreadAllocatedMemorySupported()) {
+				sun.setThreadAllocatedMemoryEnabled(true);
+				return sun;
+			}
+		}
+		return null;
+	}
+
+	private enum RandomBlockRange {
+		NEAR(16), FAR(32);
+
+		public final int range;
+
+		RandomBlockRange(final int range) {
+			this.range = range;
+		}
+	}
+
+	private interface IPositionSink {
+		void accept(@Nonnull BlockPos pos);
+	}
+
+	private static final class Measurement {
+		public long nanos;
+		public long bytes;
+		public long blocks;
+		public int updates;
+		private long startNanos;
+		private long startBytes;
+
+		public void reset() {
+			this.nanos = 0;
+			this.bytes = 0;
+			this.blocks = 0;
+			this.updates = 0;
+		}
+
+		public void begin() {
+			this.startBytes = allocatedBytes();
+			this.startNanos = System.nanoTime();
+		}
+
+		public void end(final long blocks) {
+			this.nanos += System.nanoTime() - this.startNanos;
+			this.bytes += allocatedBytes() - this.startBytes;
+			this.blocks += blocks;
+		}
+
+		public void report(@Nonnull final String name) {
+			final double millis = this.nanos / 1000000D;
+			final double perUpdate = this.updates == 0 ? 0 : (double) this.bytes / this.updates;
+			System.out.println(String.format(Locale.ROOT, "%-36s %12.1f blocks/ms %12.1f bytes/update (%d updates)",
+					name, this.blocks / millis, THREADS != null ? perUpdate : Double.NaN, this.updates));
+			BASELINE.reportOnly(name + " blocks/ms", this.blocks / millis);
+			if (THREADS != null)
+				BASELINE.lowerIsBetter(name + " bytes/update", perUpdate);
+		}
+	}
+
+	private static final class BenchCuboidScanner extends CuboidScanner {
+
+		private final IBlockState lava = Blocks.LAVA.getDefaultState();
+		private final IBlockState ore = Blocks.COAL_ORE.getDefaultState();
+		public int found;
+
+		public BenchCuboidScanner(@Nonnull final ScanLocus locus, final int range) {
+			super(locus, "BenchCuboidScanner", range, 0);
+		}
+
+		@Override
+		protected boolean interestingBlock(final IBlockState state) {
+			return state == this.lava || state == this.ore;
+		}
+
+		@Override
+		public void blockScan(@Nonnull final IBlockState state, @Nonnull final BlockPos pos,
+				@Nonnull final Random rand) {
+			this.found++;
+		}
+	}
+
+	private static final class BenchRandomScanner extends RandomScanner {
+
+		private final IPositionSink sink;
+		public int found;
+
+		public BenchRandomScanner(@Nonnull final ScanLocus locus, final int range, final int probes,
+				@Nullable final IPositionSink sink) {
+			super(locus, "BenchRandomScanner", range, probes);
+			this.sink = sink;
+		}
+
+		@Override
+		protected boolean interestingBlock(final IBlockState state) {
+			return this.sink != null || state.getMaterial().isLiquid();
+		}
+
+		@Override
+		public void blockScan(@Nonnull final IBlockState state, @Nonnull final BlockPos pos,
+				@Nonnull final Random rand) {
+			if (this.sink != null)
+				this.sink.accept(pos);
+			else
+				this.found++;
+		}
+	}
+}
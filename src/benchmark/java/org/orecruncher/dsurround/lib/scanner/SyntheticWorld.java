@@ -0,0 +1,208 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import java.lang.reflect.Proxy;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Procedurally generated world for driving the scanners without Minecraft
+ * running. Terrain is rolling grass over dirt and stone with scattered ore and
+ * lava pockets, and water fills anything below sea level. The same seed always
+ * produces the same world. Individual positions can be changed after the fact
+ * to simulate block updates.
+ *
+ * The IBlockAccessEx view is a dynamic proxy that only answers what the
+ * scanners use: getBlockState(), isAvailable(), isAirBlock(), getWorld() and
+ * worldReference(). Everything else returns a default value.
+ */
+public final class SyntheticWorld {
+
+	private static final int SEA_LEVEL = 62;
+	private static final int BASE_HEIGHT = 60;
+
+	private final long seed;
+	private final IBlockAccessEx access;
+	private final Long2ObjectOpenHashMap<IBlockState> changes = new Long2ObjectOpenHashMap<>();
+	private int reference = 1;
+
+	private final IBlockState bedrock = Blocks.BEDROCK.getDefaultState();
+	private final IBlockState stone = Blocks.STONE.getDefaultState();
+	private final IBlockState dirt = Blocks.DIRT.getDefaultState();
+	private final IBlockState grass = Blocks.GRASS.getDefaultState();
+	private final IBlockState sand = Blocks.SAND.getDefaultState();
+	private final IBlockState water = Blocks.WATER.getDefaultState();
+	private final IBlockState lava = Blocks.LAVA.getDefaultState();
+	private final IBlockState ore = Blocks.COAL_ORE.getDefaultState();
+	private final IBlockState air = Blocks.AIR.getDefaultState();
+
+	public SyntheticWorld(final long seed) {
+		this.seed = seed;
+		this.access = (IBlockAccessEx) Proxy.newProxyInstance(IBlockAccessEx.class.getClassLoader(),
+				new Class<?>[] { IBlockAccessEx.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getBlockState":
+						return getBlockState((BlockPos) args[0]);
+					case "isAirBlock":
+						return getBlockState((BlockPos) args[0]) == this.air;
+					case "isAvailable":
+					case "isBlockLoaded":
+						return Boolean.TRUE;
+					case "worldReference":
+						return this.reference;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+						return "SyntheticWorld[" + this.seed + "]";
+					default:
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	@Nonnull
+	public IBlockAccessEx getAccess() {
+		return this.access;
+	}
+
+	/**
+	 * Changes the world reference so that scanners treat the next update as a
+	 * new world.
+	 */
+	public void invalidate() {
+		this.reference++;
+	}
+
+	/**
+	 * Replaces the generated state at the position.
+	 */
+	public void setBlockState(@Nonnull final BlockPos pos, @Nonnull final IBlockState state) {
+		this.changes.put(pos.toLong(), state);
+	}
+
+	@Nonnull
+	public IBlockState getBlockState(@Nonnull final BlockPos pos) {
+		if (!this.changes.isEmpty()) {
+			final IBlockState state = this.changes.get(pos.toLong());
+			if (state != null)
+				return state;
+		}
+
+		final int x = pos.getX();
+		final int y = pos.getY();
+		final int z = pos.getZ();
+
+		if (y < 0 || y > 255)
+			return this.air;
+		if (y == 0)
+			return this.bedrock;
+
+		final int height = BASE_HEIGHT + (int) (hash(x >> 3, 0, z >> 3) & 7);
+		if (y > height)
+			return y <= SEA_LEVEL ? this.water : this.air;
+		if (y == height)
+			return height <= SEA_LEVEL ? this.sand : this.grass;
+		if (y > height - 4)
+			return this.dirt;
+
+		final long r = hash(x, y, z);
+		if ((r & 127) == 0)
+			return this.ore;
+		if ((r & 1023) == 1 && y < 16)
+			return this.lava;
+		return this.stone;
+	}
+
+	private long hash(final int x, final int y, final int z) {
+		long h = this.seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL) ^ (z * 0x165667B19E3779F9L);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static Object defaultValue(@Nonnull final Class<?> type) {
+		if (!type.isPrimitive() || type == void.class)
+			return null;
+		if (type == boolean.class)
+			return Boolean.FALSE;
+		if (type == char.class)
+			return (char) 0;
+		if (type == byte.class)
+			return (byte) 0;
+		if (type == short.class)
+			return (short) 0;
+		if (type == int.class)
+			return 0;
+		if (type == long.class)
+			return 0L;
+		if (type == float.class)
+			return 0F;
+		return 0D;
+	}
+
+	/**
+	 * Locus over the synthetic world whose center is moved by the benchmark.
+	 */
+	public static final class Locus extends ScanLocus {
+
+		private final SyntheticWorld world;
+		private BlockPos center;
+
+		public Locus(@Nonnull final SyntheticWorld world, @Nonnull final BlockPos center) {
+			this.world = world;
+			this.center = center;
+		}
+
+		public void setCenter(@Nonnull final BlockPos center) {
+			this.center = center;
+		}
+
+		@Override
+		@Nonnull
+		public IBlockAccessEx getWorld() {
+			return this.world.getAccess();
+		}
+
+		@Override
+		public BlockPos getCenter() {
+			return this.center;
+		}
+
+		@Override
+		public int getReference() {
+			return this.world.reference;
+		}
+	}
+}
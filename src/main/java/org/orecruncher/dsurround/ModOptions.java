@@ -282,6 +282,37 @@ public final class ModOptions {
 		@LangKey(general.PREFIX + ".ChunkCaching")
 		@Comment("Enable/disable client side chunk caching (performance)")
 		public static boolean enableClientChunkCaching = true;
+
+		@Option("Enable Configuration Cache")
+		@DefaultValue("true")
+		@LangKey(general.PREFIX + ".ConfigCache")
+		@Comment("Enable/disable caching of parsed configuration data on disk (performance)")
+		public static boolean enableConfigCache = true;
+
+		@Option("Enable Parallel Registry Load")
+		@DefaultValue("true")
+		@LangKey(general.PREFIX + ".ParallelRegistry")
+		@Comment("Enable/disable initializing independent registries in parallel (performance)")
+		public static boolean enableParallelRegistryLoad = true;
+
+		@Option("Enable Async Block Scan")
+		@DefaultValue("true")
+		@LangKey(general.PREFIX + ".AsyncScan")
+		@Comment("Enable/disable scanning the area around the player for always on effects on a worker thread (performance)")
+		public static boolean enableAsyncBlockScan = true;
+
+		@Option("Block Scan Time Slice")
+		@DefaultValue("500")
+		@LangKey(general.PREFIX + ".ScanTimeSlice")
+		@RangeInt(min = 50, max = 5000)
+		@Comment("Target time in microseconds to spend per tick scanning the area around the player; the per tick block budget is adjusted to meet it (performance)")
+		public static int scanTimeSlice = 500;
+
+		@Option("Low Discrepancy Block Sampling")
+		@DefaultValue("true")
+		@LangKey(general.PREFIX + ".LowDiscrepancy")
+		@Comment("Enable/disable selecting random block effect positions from an evenly distributed sequence rather than independent random draws; fewer positions are probed per tick for the same coverage (performance)")
+		public static boolean enableLowDiscrepancySampling = true;
 	}
 
 	public static final String CATEGORY_AURORA = "aurora";
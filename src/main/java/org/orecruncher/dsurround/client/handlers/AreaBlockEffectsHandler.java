@@ -30,6 +30,7 @@ import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.client.handlers.scanners.AlwaysOnBlockEffectScanner;
 import org.orecruncher.dsurround.client.handlers.scanners.ClientPlayerLocus;
 import org.orecruncher.dsurround.client.handlers.scanners.RandomBlockEffectScanner;
+import org.orecruncher.dsurround.lib.scanner.CompositeScanner;
 
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.common.MinecraftForge;
@@ -53,6 +54,11 @@ public final class AreaBlockEffectsHandler extends EffectHandlerBase {
 		this.locus,
 		ModOptions.effects.specialEffectRange
 	);
+	// The scanners overlap around the player so they share block reads
+	protected final CompositeScanner scanners = new CompositeScanner(this.locus)
+		.add(this.nearEffects)
+		.add(this.farEffects)
+		.add(this.alwaysOn);
 	//@formatter:on
 
 	public AreaBlockEffectsHandler() {
@@ -61,9 +67,7 @@ public final class AreaBlockEffectsHandler extends EffectHandlerBase {
 
 	@Override
 	public void process(@Nonnull final EntityPlayer player) {
-		this.nearEffects.update();
-		this.farEffects.update();
-		this.alwaysOn.update();
+		this.scanners.update();
 	}
 
 	@Override
@@ -36,6 +36,7 @@ import org.orecruncher.lib.collections.ObjectArray;
 
 import it.unimi.dsi.fastutil.objects.Object2FloatOpenHashMap;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -111,4 +112,14 @@ public class BiomeSoundEffectsHandler extends EffectHandlerBase {
 		SoundEffectHandler.INSTANCE.queueAmbientSounds(sounds);
 	}
 
+	@Override
+	public void onConnect() {
+		MinecraftForge.EVENT_BUS.register(this.biomes);
+	}
+
+	@Override
+	public void onDisconnect() {
+		MinecraftForge.EVENT_BUS.unregister(this.biomes);
+	}
+
 }
@@ -58,6 +58,8 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
@@ -326,7 +328,7 @@ public class EnvironStateHandler extends EffectHandlerBase {
 
 		data.dayCycle = DiurnalUtils.getCycle(world);
 
-		// Resets cached script variables so they are updated
+		// Marks cached script variables stale so they are recomputed on first use
 		ExpressionEngine.instance().reset();
 	}
 	
@@ -337,6 +339,7 @@ public class EnvironStateHandler extends EffectHandlerBase {
 	@Override
 	public void onConnect() {
 		this.reset();
+		MinecraftForge.EVENT_BUS.register(this.ceiling);
 		
 		// Ensures we have an expression instance up
 		ExpressionEngine.instance();
@@ -344,6 +347,8 @@ public class EnvironStateHandler extends EffectHandlerBase {
 
 	@Override
 	public void onDisconnect() {
+		MinecraftForge.EVENT_BUS.unregister(this.ceiling);
+		this.ceiling.clear();
 		this.reset();
 	}
 
@@ -360,6 +365,17 @@ public class EnvironStateHandler extends EffectHandlerBase {
 		//@formatter:on
 	};
 
+	/**
+	 * Feeds new arrivals to the battle scanner so it doesn't have to sweep the
+	 * loaded entity list looking for bosses. Runs last so that entities another
+	 * mod keeps from joining are not tracked.
+	 */
+	@SubscribeEvent(priority = EventPriority.LOWEST)
+	public void onEntityJoin(@Nonnull final EntityJoinWorldEvent event) {
+		if (!event.isCanceled() && event.getWorld().isRemote)
+			EnvironState.getBattleScanner().onEntityJoin(event.getEntity());
+	}
+
 	@SubscribeEvent(priority = EventPriority.HIGHEST)
 	public void diagnostics(final DiagnosticEvent.Gather event) {
 
@@ -29,6 +29,7 @@ import java.util.Random;
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.client.fx.BlockEffect;
 import org.orecruncher.dsurround.lib.scanner.CuboidScanner;
 import org.orecruncher.dsurround.lib.scanner.ScanLocus;
@@ -47,6 +48,11 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * The CuboidScanner tries to only scan new blocks that come into range as the
  * player moves. Once all the blocks are scanned in the region (cuboid) it will
  * stop. It will start again once the player moves location.
+ *
+ * The full scan can run on a worker thread. The worker does not call
+ * interestingBlock() since BlockStateData can be replaced by a registry reload
+ * at any time; it reads a per state ID snapshot that CuboidScanner takes on the
+ * client thread and discards when a registry reloads.
  */
 @SideOnly(Side.CLIENT)
 public class AlwaysOnBlockEffectScanner extends CuboidScanner {
@@ -54,6 +60,9 @@ public class AlwaysOnBlockEffectScanner extends CuboidScanner {
 	public AlwaysOnBlockEffectScanner(@Nonnull final ScanLocus locus, final int range) {
 		super(locus, "AlwaysOnBlockEffectScanner", range, 0);
 		setLogger(ModBase.log());
+		setAsync(ModOptions.general.enableAsyncBlockScan);
+		setAdaptiveBudget(ModOptions.general.scanTimeSlice * 1000L, this.blocksPerTick / 4,
+				this.blocksPerTick * 4);
 	}
 
 	@Override
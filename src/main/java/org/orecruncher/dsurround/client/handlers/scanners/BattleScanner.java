@@ -25,6 +25,7 @@
 package org.orecruncher.dsurround.client.handlers.scanners;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 
@@ -33,6 +34,9 @@ import org.orecruncher.dsurround.capabilities.CapabilityEntityData;
 import org.orecruncher.dsurround.capabilities.entitydata.IEntityData;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 
+import com.google.common.base.Predicate;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLiving;
 import net.minecraft.entity.boss.EntityDragon;
@@ -41,6 +45,7 @@ import net.minecraft.entity.monster.EntityGolem;
 import net.minecraft.entity.monster.EntityPolarBear;
 import net.minecraft.entity.monster.IMob;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.World;
@@ -52,6 +57,10 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * a battle is taking place.  This does not mean the player is
  * being attacked - only that there are entities that are
  * fighting nearby.
+ *
+ * Regular mobs only matter within MOB_RANGE so they are found by querying
+ * the chunks around the player.  Bosses have a much larger range so they
+ * are tracked as they join the world.
  */
 @SideOnly(Side.CLIENT)
 public class BattleScanner {
@@ -62,6 +71,7 @@ public class BattleScanner {
 	private static final int MINI_BOSS_RANGE = 16384; // 128 block range
 	private static final int MOB_RANGE = 400; // 20 block range
 	private static final int BATTLE_TIMER_EXPIRY = 10;
+	private static final double MOB_SEARCH_RADIUS = Math.sqrt(MOB_RANGE) + 1.0D;
 
 	protected int battleTimer;
 	protected boolean inBattle;
@@ -70,6 +80,12 @@ public class BattleScanner {
 	protected boolean isBoss;
 	protected int hostileCount;
 
+	// Boss entities known to be in the current world
+	protected final Set<Entity> bosses = new ReferenceOpenHashSet<>();
+	protected World bossWorld;
+
+	private final Predicate<Entity> mobFilter = e -> e != null && e.isNonBoss() && isApplicableType(e);
+
 	public void reset() {
 		this.inBattle = false;
 		this.isWither = false;
@@ -98,6 +114,31 @@ public class BattleScanner {
 		return this.hostileCount;
 	}
 
+	/**
+	 * Called when an entity joins the client world so that bosses can be tracked.
+	 */
+	public void onEntityJoin(@Nonnull final Entity entity) {
+		if (entity.world == this.bossWorld && !entity.isNonBoss() && isApplicableType(entity))
+			this.bosses.add(entity);
+	}
+
+	private void refreshBosses(@Nonnull final World world) {
+		if (world != this.bossWorld) {
+			// New world so do a one time sweep to pick up what is there. After
+			// this new arrivals are reported via onEntityJoin().
+			this.bossWorld = world;
+			this.bosses.clear();
+			final List<Entity> entities = world.getLoadedEntityList();
+			for (int i = 0; i < entities.size(); i++) {
+				final Entity e = entities.get(i);
+				if (!e.isNonBoss() && isApplicableType(e))
+					this.bosses.add(e);
+			}
+		} else if (!this.bosses.isEmpty()) {
+			this.bosses.removeIf(e -> e.isDead || e.world != world);
+		}
+	}
+
 	private boolean isApplicableType(final Entity e) {
 		if (e instanceof IMob)
 			return true;
@@ -126,17 +167,8 @@ public class BattleScanner {
 		boolean isWither = false;
 		int hostileCount = 0;
 
-		final List<Entity> entities = world.getLoadedEntityList();
-		for (final Entity e : entities) {
-
-			// The player isn't a candidate
-			if (e == player)
-				continue;
-
-			// Gotta be the right type of entity. Do this first
-			// to filter out all the animals.
-			if (!isApplicableType(e))
-				continue;
+		refreshBosses(world);
+		for (final Entity e : this.bosses) {
 
 			// Has to be within a snowballs chance. Boss range is
 			// the farthest range.
@@ -149,19 +181,37 @@ public class BattleScanner {
 			if (e.isInvisible() || e.isOnSameTeam(player))
 				continue;
 
-			if (!e.isNonBoss()) {
-				if (e instanceof EntityWither) {
-					inBattle = isWither = isBoss = true;
-					isDragon = false;
-				} else if (e instanceof EntityDragon) {
-					if (!isWither)
-						inBattle = isDragon = isBoss = true;
-				} else if (dist <= MINI_BOSS_RANGE) {
-					if (!(isDragon || isWither))
-						inBattle = isBoss = true;
-				}
-				hostileCount++;
-			} else if (dist > MOB_RANGE) {
+			if (e instanceof EntityWither) {
+				inBattle = isWither = isBoss = true;
+				isDragon = false;
+			} else if (e instanceof EntityDragon) {
+				if (!isWither)
+					inBattle = isDragon = isBoss = true;
+			} else if (dist <= MINI_BOSS_RANGE) {
+				if (!(isDragon || isWither))
+					inBattle = isBoss = true;
+			}
+			hostileCount++;
+		}
+
+		// Regular mobs are pulled from the chunks in range. The filter makes
+		// sure they are the right type of entity and weeds out the animals.
+		final AxisAlignedBB box = new AxisAlignedBB(playerPos).grow(MOB_SEARCH_RADIUS);
+		final List<Entity> entities = world.getEntitiesWithinAABB(Entity.class, box, this.mobFilter);
+		for (int i = 0; i < entities.size(); i++) {
+			final Entity e = entities.get(i);
+
+			// The player isn't a candidate
+			if (e == player)
+				continue;
+
+			// Invisible things do not trigger as well as the current
+			// player and team members.
+			if (e.isInvisible() || e.isOnSameTeam(player))
+				continue;
+
+			final double dist = e.getDistanceSq(playerPos);
+			if (dist > MOB_RANGE) {
 				// If the mob is outside of our scan range we ignore it
 				continue;
 			} else {
@@ -23,6 +23,11 @@
  */
 package org.orecruncher.dsurround.client.handlers.scanners;
 
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.registry.biome.BiomeInfo;
 import org.orecruncher.dsurround.registry.biome.BiomeUtil;
@@ -30,9 +35,13 @@ import org.orecruncher.lib.chunk.ClientChunkCache;
 import org.orecruncher.lib.chunk.IBlockAccessEx;
 
 import it.unimi.dsi.fastutil.objects.Reference2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.biome.Biome;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -46,10 +55,27 @@ public final class BiomeScanner implements ITickable {
 	private static final int BIOME_SURVEY_RANGE = 20;
 	private static final int MAX_BIOME_AREA = (int) Math.pow(BIOME_SURVEY_RANGE * 2 + 1, 2);
 
+	// If the player moves further than this the area is surveyed from scratch
+	// rather than sliding the window a row/column at a time.
+	private static final int MAX_SLIDE_DISTANCE = BIOME_SURVEY_RANGE;
+	// Number of incremental updates before a full survey is done. Picks up
+	// biome data for chunks that were not loaded when first counted.
+	private static final int FULL_SURVEY_INTERVAL = 64;
+
 	private final BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
 
 	private int biomeArea;
-	private Reference2FloatOpenHashMap<BiomeInfo> weights = new Reference2FloatOpenHashMap<>();
+	private final Reference2FloatOpenHashMap<BiomeInfo> weights = new Reference2FloatOpenHashMap<>();
+
+	// Count of each biome within the survey area indexed by biome ID, and of
+	// biomes that have no registry ID. The counts are only slid when every
+	// position counted was in a loaded chunk; a chunk loading or unloading
+	// within the window forces a full survey.
+	private int[] counts = new int[256];
+	private final Reference2IntOpenHashMap<Biome> unregistered = new Reference2IntOpenHashMap<>();
+	private boolean countsValid = false;
+	private boolean chunksChanged = false;
+	private int incrementalUpdates;
 
 	// "Finger print" of the last area survey.
 	private BiomeInfo surveyedBiome = null;
@@ -60,35 +86,147 @@ public final class BiomeScanner implements ITickable {
 	public void update() {
 		final BlockPos position = EnvironState.getPlayerPosition();
 
-		if (this.surveyedBiome != EnvironState.getPlayerBiome()
+		if (this.chunksChanged || this.surveyedBiome != EnvironState.getPlayerBiome()
 				|| this.surveyedDimension != EnvironState.getDimensionId()
 				|| this.surveyedPosition.compareTo(position) != 0) {
 
+			final BlockPos lastPosition = this.surveyedPosition;
+			if (this.chunksChanged || this.surveyedDimension != EnvironState.getDimensionId())
+				this.countsValid = false;
+			this.chunksChanged = false;
+
 			this.surveyedBiome = EnvironState.getPlayerBiome();
 			this.surveyedDimension = EnvironState.getDimensionId();
 			this.surveyedPosition = position;
 
-			this.biomeArea = 0;
-			this.weights = new Reference2FloatOpenHashMap<>();
+			this.weights.clear();
 
 			if (EnvironState.getPlayerBiome().isFake()) {
 				this.biomeArea = 1;
 				this.weights.put(EnvironState.getPlayerBiome(), 1);
+				this.countsValid = false;
 			} else {
 				final IBlockAccessEx provider = ClientChunkCache.instance();
-				for (int dX = -BIOME_SURVEY_RANGE; dX <= BIOME_SURVEY_RANGE; dX++)
-					for (int dZ = -BIOME_SURVEY_RANGE; dZ <= BIOME_SURVEY_RANGE; dZ++) {
-						this.mutable.setPos(this.surveyedPosition.getX() + dX, 0, this.surveyedPosition.getZ() + dZ);
-						final Biome biome = provider.getBiome(this.mutable);
-						final BiomeInfo info = BiomeUtil.getBiomeData(biome);
-						this.weights.addTo(info, 1F);
+				final int dX = position.getX() - lastPosition.getX();
+				final int dZ = position.getZ() - lastPosition.getZ();
+				if (this.countsValid && Math.abs(dX) + Math.abs(dZ) <= MAX_SLIDE_DISTANCE
+						&& ++this.incrementalUpdates < FULL_SURVEY_INTERVAL) {
+					slide(provider, lastPosition.getX(), lastPosition.getZ(), dX, dZ);
+					// A column that was not loaded was counted, or the counts went
+					// bad. Either way they cannot be trusted.
+					if (!this.countsValid || !isConsistent()) {
+						ModBase.log().debug("Biome survey counts inconsistent; surveying area");
+						survey(provider);
 					}
+				} else {
+					survey(provider);
+				}
+
+				for (int i = 0; i < this.counts.length; i++)
+					if (this.counts[i] > 0)
+						this.weights.addTo(BiomeUtil.getBiomeData(Biome.getBiome(i)), this.counts[i]);
+				for (final Reference2IntMap.Entry<Biome> e : this.unregistered.reference2IntEntrySet())
+					if (e.getIntValue() > 0)
+						this.weights.addTo(BiomeUtil.getBiomeData(e.getKey()), e.getIntValue());
 
 				this.biomeArea = MAX_BIOME_AREA;
 			}
 		}
 	}
 
+	private void survey(@Nonnull final IBlockAccessEx provider) {
+		Arrays.fill(this.counts, 0);
+		this.unregistered.clear();
+		this.countsValid = true;
+		this.incrementalUpdates = 0;
+		final int x = this.surveyedPosition.getX();
+		final int z = this.surveyedPosition.getZ();
+		for (int dX = -BIOME_SURVEY_RANGE; dX <= BIOME_SURVEY_RANGE; dX++)
+			for (int dZ = -BIOME_SURVEY_RANGE; dZ <= BIOME_SURVEY_RANGE; dZ++)
+				count(provider, x + dX, z + dZ, 1);
+	}
+
+	private boolean isConsistent() {
+		int total = 0;
+		for (final int c : this.counts) {
+			if (c < 0)
+				return false;
+			total += c;
+		}
+		for (final int c : this.unregistered.values()) {
+			if (c < 0)
+				return false;
+			total += c;
+		}
+		return total == MAX_BIOME_AREA;
+	}
+
+	/**
+	 * Moves the survey window one row or column at a time, subtracting the
+	 * positions that leave the window and adding the ones that enter.
+	 */
+	private void slide(@Nonnull final IBlockAccessEx provider, int x, int z, final int dX, final int dZ) {
+		final int stepX = Integer.signum(dX);
+		for (int i = 0; i != dX; i += stepX) {
+			final int leaving = x - stepX * BIOME_SURVEY_RANGE;
+			final int entering = x + stepX * (BIOME_SURVEY_RANGE + 1);
+			for (int k = -BIOME_SURVEY_RANGE; k <= BIOME_SURVEY_RANGE; k++) {
+				count(provider, leaving, z + k, -1);
+				count(provider, entering, z + k, 1);
+			}
+			x += stepX;
+		}
+
+		final int stepZ = Integer.signum(dZ);
+		for (int i = 0; i != dZ; i += stepZ) {
+			final int leaving = z - stepZ * BIOME_SURVEY_RANGE;
+			final int entering = z + stepZ * (BIOME_SURVEY_RANGE + 1);
+			for (int k = -BIOME_SURVEY_RANGE; k <= BIOME_SURVEY_RANGE; k++) {
+				count(provider, x + k, leaving, -1);
+				count(provider, x + k, entering, 1);
+			}
+			z += stepZ;
+		}
+	}
+
+	private void count(@Nonnull final IBlockAccessEx provider, final int x, final int z, final int delta) {
+		this.mutable.setPos(x, 0, z);
+		// Biome data of a chunk that is not loaded is a placeholder. It can be
+		// counted for this survey but not slid out of the window later.
+		if (!provider.isAvailable(this.mutable))
+			this.countsValid = false;
+		final Biome biome = provider.getBiome(this.mutable);
+		final int id = Biome.getIdForBiome(biome);
+		// Biomes not in the registry cannot be counted by ID
+		if (id < 0) {
+			this.unregistered.addTo(biome, delta);
+			return;
+		}
+		if (id >= this.counts.length)
+			this.counts = Arrays.copyOf(this.counts, Math.max(id + 1, this.counts.length * 2));
+		this.counts[id] += delta;
+	}
+
+	private void onChunkChange(final int cx, final int cz) {
+		final int x = this.surveyedPosition.getX();
+		final int z = this.surveyedPosition.getZ();
+		if ((cx << 4) + 15 >= x - BIOME_SURVEY_RANGE && (cx << 4) <= x + BIOME_SURVEY_RANGE
+				&& (cz << 4) + 15 >= z - BIOME_SURVEY_RANGE && (cz << 4) <= z + BIOME_SURVEY_RANGE)
+			this.chunksChanged = true;
+	}
+
+	@SubscribeEvent
+	public void onChunkLoad(@Nonnull final ChunkEvent.Load event) {
+		if (event.getWorld().isRemote)
+			onChunkChange(event.getChunk().x, event.getChunk().z);
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(@Nonnull final ChunkEvent.Unload event) {
+		if (event.getWorld().isRemote)
+			onChunkChange(event.getChunk().x, event.getChunk().z);
+	}
+
 	public int getBiomeArea() {
 		return this.biomeArea;
 	}
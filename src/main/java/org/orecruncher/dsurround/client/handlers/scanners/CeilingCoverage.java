@@ -30,20 +30,30 @@ import java.util.List;
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.event.BlockRangeUpdateEvent;
+import org.orecruncher.dsurround.event.BlockUpdateEvent;
 import org.orecruncher.lib.chunk.ClientChunkCache;
 import org.orecruncher.lib.math.MathStuff;
 
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3i;
 import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**
  * Performs area scanning around the player to determine area ceiling coverage.
  * Used to determine if the player is "inside" or "outside".
+ *
+ * The ceiling of each column is cached and reused as the player moves. The
+ * cache entry for a column is dropped when a block in the column changes or
+ * the chunk is reloaded. Needs to be registered with the event bus.
  */
 @SideOnly(Side.CLIENT)
 public final class CeilingCoverage implements ITickable {
@@ -72,8 +82,35 @@ public final class CeilingCoverage implements ITickable {
 		TOTAL_POINTS = totalPoints;
 	}
 
+	// Upper bound on the number of cached columns before the cache is dumped
+	private static final int MAX_COLUMNS = 16384;
+	private static final int NO_ENTRY = -1;
+	private static final int NO_DIMENSION = Integer.MIN_VALUE;
+
 	private boolean reallyInside = false;
 
+	// Ceiling information per x/z column. The low 16 bits hold the Y of the
+	// highest cover block + 1, or 0 if no cover has been found. The high 16 bits
+	// hold the lowest Y that was examined; everything from there up to the
+	// precipitation height is known not to be cover.
+	private final Long2IntOpenHashMap columns = new Long2IntOpenHashMap();
+	private final BlockPos.MutableBlockPos working = new BlockPos.MutableBlockPos();
+	private int dimension = NO_DIMENSION;
+
+	public CeilingCoverage() {
+		this.columns.defaultReturnValue(NO_ENTRY);
+	}
+
+	/**
+	 * Drops the cached columns. Called on disconnect so that nothing from the
+	 * last world carries over to the next connection.
+	 */
+	public void clear() {
+		this.columns.clear();
+		this.dimension = NO_DIMENSION;
+		this.reallyInside = false;
+	}
+
 	@Override
 	public void update() {
 		if (EnvironState.getTickCounter() % SURVEY_INTERVAL == 0) {
@@ -81,9 +118,16 @@ public final class CeilingCoverage implements ITickable {
 			if (EnvironState.getDimensionId() == -1 || EnvironState.getDimensionInfo().alwaysOutside()) {
 				this.reallyInside = false;
 			} else {
+				if (this.dimension != EnvironState.getDimensionId() || this.columns.size() > MAX_COLUMNS) {
+					this.dimension = EnvironState.getDimensionId();
+					this.columns.clear();
+				}
 				final BlockPos pos = EnvironState.getPlayerPosition();
+				final int playerHeight = Math.max(pos.getY() + 1, 0);
 				float score = 0.0F;
-				for (Cell cell : cells) score += cell.score(pos);
+				for (final Cell cell : cells)
+					if (!isCovered(pos.getX() + cell.offset.getX(), pos.getZ() + cell.offset.getZ(), playerHeight))
+						score += cell.potentialPoints();
 				ceilingCoverageRatio = 1.0F - (score / TOTAL_POINTS);
 				this.reallyInside = ceilingCoverageRatio > INSIDE_THRESHOLD;
 			}
@@ -94,11 +138,89 @@ public final class CeilingCoverage implements ITickable {
 		return this.reallyInside;
 	}
 
+	/**
+	 * Determines if there is a cover block in the column between the
+	 * precipitation height and the player's head. Results are cached per column
+	 * until a block in the column changes.
+	 */
+	private boolean isCovered(final int x, final int z, final int playerHeight) {
+		final long key = ChunkPos.asLong(x, z);
+		final int entry = this.columns.get(key);
+
+		int top;
+		if (entry == NO_ENTRY) {
+			this.working.setPos(x, 0, z);
+			top = ClientChunkCache.instance().getPrecipitationHeight(this.working).getY();
+		} else {
+			final int cover = (entry & 0xFFFF) - 1;
+			if (cover >= 0)
+				return cover > playerHeight;
+			final int floor = entry >>> 16;
+			if (floor <= playerHeight + 1)
+				return false;
+			// Need to look further down than before
+			top = floor - 1;
+		}
+
+		final World world = EnvironState.getWorld();
+		for (int y = top; y > playerHeight; y--) {
+			this.working.setPos(x, y, z);
+			final IBlockState state = ClientChunkCache.instance().getBlockState(this.working);
+
+			//@formatter:off
+			if (state.getMaterial().blocksMovement()
+				&& !state.getBlock().isLeaves(state, world, this.working)
+				&& !state.getBlock().isFoliage(world, this.working)) {
+				// Cover block
+				this.columns.put(key, (y << 16) | (y + 1));
+				return true;
+			}
+			//@formatter:on
+		}
+
+		this.columns.put(key, (Math.min(top, playerHeight) + 1) << 16);
+		return false;
+	}
+
+	private void invalidate(final int x1, final int z1, final int x2, final int z2) {
+		for (int x = x1; x <= x2; x++)
+			for (int z = z1; z <= z2; z++)
+				this.columns.remove(ChunkPos.asLong(x, z));
+	}
+
+	@SubscribeEvent
+	public void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
+		this.columns.remove(ChunkPos.asLong(event.pos.getX(), event.pos.getZ()));
+	}
+
+	@SubscribeEvent
+	public void onBlockRangeUpdate(@Nonnull final BlockRangeUpdateEvent event) {
+		invalidate(Math.min(event.x1, event.x2), Math.min(event.z1, event.z2), Math.max(event.x1, event.x2),
+				Math.max(event.z1, event.z2));
+	}
+
+	@SubscribeEvent
+	public void onChunkLoad(@Nonnull final ChunkEvent.Load event) {
+		if (event.getWorld().isRemote) {
+			final int x = event.getChunk().x << 4;
+			final int z = event.getChunk().z << 4;
+			invalidate(x, z, x + 15, z + 15);
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(@Nonnull final ChunkEvent.Unload event) {
+		if (event.getWorld().isRemote) {
+			final int x = event.getChunk().x << 4;
+			final int z = event.getChunk().z << 4;
+			invalidate(x, z, x + 15, z + 15);
+		}
+	}
+
 	private static final class Cell implements Comparable<Cell> {
 
 		private final Vec3i offset;
 		private final float points;
-		private final BlockPos.MutableBlockPos working;
 
 		public Cell(@Nonnull final Vec3i offset, final int range) {
 			this.offset = offset;
@@ -106,49 +228,12 @@ public final class CeilingCoverage implements ITickable {
 			final float zV = range - MathStuff.abs(offset.getZ()) + 1;
 			final float candidate = Math.min(xV, zV);
 			this.points = candidate * candidate;
-			this.working = new BlockPos.MutableBlockPos();
 		}
 
 		public float potentialPoints() {
 			return this.points;
 		}
 
-		public float score(@Nonnull final BlockPos playerPos) {
-			//@formatter:off
-			this.working.setPos(
-					playerPos.getX() + this.offset.getX(),
-					playerPos.getY() + this.offset.getY(),
-					playerPos.getZ() + this.offset.getZ()
-				);
-			//@formatter:on
-
-			final World world = EnvironState.getWorld();
-			final int playerHeight = Math.max(playerPos.getY() + 1, 0);
-
-			// Get the precipitation height
-			this.working.setPos(ClientChunkCache.instance().getPrecipitationHeight(this.working));
-
-			// Scan down looking for blocks that are considered "cover"
-			while (this.working.getY() > playerHeight) {
-
-				final IBlockState state = ClientChunkCache.instance().getBlockState(this.working);
-
-				//@formatter:off
-	            if (state.getMaterial().blocksMovement()
-	            	&& !state.getBlock().isLeaves(state, world, this.working)
-	            	&& !state.getBlock().isFoliage(world, this.working)) {
-	            	// Cover block - no points for you!
-	                return 0;
-	            }
-	            //@formatter:on
-
-				this.working.setY(this.working.getY() - 1);
-			}
-
-			// Scanned down to the players head and found nothing. So give the points.
-			return this.points;
-		}
-
 		@Override
 		public int compareTo(@Nonnull final Cell cell) {
 			// Want big scores first in the list
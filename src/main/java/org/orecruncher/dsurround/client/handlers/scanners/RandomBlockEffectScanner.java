@@ -29,6 +29,7 @@ import java.util.Random;
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.client.fx.BlockEffect;
 import org.orecruncher.dsurround.client.sound.SoundEffect;
 import org.orecruncher.dsurround.lib.scanner.RandomScanner;
@@ -50,19 +51,40 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * to a max of 16 blocks, and then up to a max of 32 blocks. There is some
  * overlap with the 16 block range when generating the 32 block version, but
  * since the iteration has been reduce to 667 (from 1000 in MC 1.7.10) it should
- * compensate.
+ * compensate. With low discrepancy sampling the positions do not repeat as
+ * often so fewer iterations give the same coverage.
  */
 @SideOnly(Side.CLIENT)
 public class RandomBlockEffectScanner extends RandomScanner {
 
 	private static final int ITERATION_COUNT = 667;
 
+	// Probe counts at which low discrepancy sampling reaches as many distinct
+	// positions over a second as ITERATION_COUNT random draws per tick. Over 20
+	// ticks the random draws reach about 8,950 distinct positions at range 16
+	// and 12,580 at range 32. The coverage section of ScannerBenchmark binary
+	// searches for the smallest low discrepancy count that reaches the same, and
+	// reported 552 and 629. The constants round those up to the next multiple of
+	// 10 so that a different starting offset in the sequence does not fall
+	// short. Rerun the benchmark if ITERATION_COUNT, the ranges or the sampling
+	// change.
+	private static final int LOW_DISCREPANCY_NEAR_COUNT = 560;
+	private static final int LOW_DISCREPANCY_FAR_COUNT = 630;
+
 	public static final int NEAR_RANGE = 16;
 	public static final int FAR_RANGE = 32;
 
 	public RandomBlockEffectScanner(@Nonnull final ScanLocus locus, final int range) {
-		super(locus, "RandomBlockScanner: " + range, range, ITERATION_COUNT);
+		super(locus, "RandomBlockScanner: " + range, range, getIterationCount(range));
 		setLogger(ModBase.log());
+		if (ModOptions.general.enableLowDiscrepancySampling)
+			setSampling(Sampling.LOW_DISCREPANCY);
+	}
+
+	private static int getIterationCount(final int range) {
+		if (!ModOptions.general.enableLowDiscrepancySampling)
+			return ITERATION_COUNT;
+		return range <= NEAR_RANGE ? LOW_DISCREPANCY_NEAR_COUNT : LOW_DISCREPANCY_FAR_COUNT;
 	}
 
 	@Override
@@ -34,6 +34,7 @@ import org.orecruncher.dsurround.client.fx.ISpecialEffect;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.client.handlers.SoundEffectHandler;
 import org.orecruncher.dsurround.expression.ExpressionEngine;
+import org.orecruncher.dsurround.expression.ICondition;
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.config.SoundConfig;
 import org.orecruncher.dsurround.registry.config.SoundType;
@@ -68,6 +69,7 @@ public final class SoundEffect implements ISpecialEffect, IEntrySource<SoundEffe
 
 	private SoundType type;
 	private String conditions;
+	private ICondition condition;
 	private SoundCategory category;
 	private float volume;
 	private float pitch;
@@ -88,6 +90,7 @@ public final class SoundEffect implements ISpecialEffect, IEntrySource<SoundEffe
 		this.volume = volume;
 		this.pitch = pitch;
 		this.conditions = StringUtils.EMPTY;
+		this.condition = ICondition.TRUE;
 		this.weight = 10;
 		this.type = SoundType.SPOT;
 		this.category = MoreObjects.firstNonNull(category, SoundCategory.BLOCKS);
@@ -118,6 +121,7 @@ public final class SoundEffect implements ISpecialEffect, IEntrySource<SoundEffe
 
 	protected SoundEffect setConditions(@Nonnull final String cond) {
 		this.conditions = cond;
+		this.condition = ExpressionEngine.instance().compile(cond);
 		return this;
 	}
 
@@ -251,10 +255,15 @@ public final class SoundEffect implements ISpecialEffect, IEntrySource<SoundEffe
 		return this;
 	}
 
+	@Nonnull
+	public ICondition getCondition() {
+		return this.condition;
+	}
+
 	// IEntrySource<T>
 	@Override
 	public boolean matches() {
-		return ExpressionEngine.instance().check(this.conditions);
+		return this.condition.check();
 	}
 
 	@Override
@@ -58,6 +58,7 @@ public final class CommandDS extends CommandBase {
 	private static final String COMMAND_OPTION_SETSTRENGTH = "setstr";
 	private static final String COMMAND_OPTION_SETTIME = "settime";
 	private static final String COMMAND_OPTION_CONFIG = "config";
+	private static final String COMMAND_OPTION_PROFILE = "profile";
 
 	private static final List<String> ALIAS = ImmutableList.<String>builder()
 			.add(ModOptions.commands.ds.commandAliasDS.split(" ")).build();
@@ -68,6 +69,7 @@ public final class CommandDS extends CommandBase {
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " reset")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " reload")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " config")
+			.add(TextFormatting.YELLOW + "/" + COMMAND + " profile")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " status <rain|thunder|aurora>")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " settime <rain|thunder> 0-1000")
 			.add(TextFormatting.YELLOW + "/" + COMMAND + " setstr rain 0-100")
@@ -142,6 +144,9 @@ public final class CommandDS extends CommandBase {
 			} else if (COMMAND_OPTION_RELOAD.compareToIgnoreCase(parms[0]) == 0) {
 				RegistryManager.doReload();
 				feedback = new TextComponentString(Localization.format("dsurround.msg.BiomeReload"));
+			} else if (COMMAND_OPTION_PROFILE.compareToIgnoreCase(parms[0]) == 0) {
+				for (final String line : RegistryManager.getLoadReport())
+					sender.sendMessage(new TextComponentString(line));
 			} else if (COMMAND_OPTION_CONFIG.compareToIgnoreCase(parms[0]) == 0) {
 				if (data != null)
 					feedback = new TextComponentString(config(data));
@@ -74,7 +74,12 @@ public class WorldEventDetector implements IWorldEventListener {
 
 	@Override
 	public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
-
+		// Only interested in ranges that cover whole sections, such as chunk data
+		// from the server. Smaller ranges are lighting related.
+		if (x2 - x1 >= 15 && z2 - z1 >= 15 && this.world.provider.getDimension() == EnvironState.getDimensionId()) {
+			final BlockRangeUpdateEvent event = new BlockRangeUpdateEvent(this.world, x1, y1, z1, x2, y2, z2);
+			MinecraftForge.EVENT_BUS.post(event);
+		}
 	}
 
 	@Override
@@ -23,17 +23,16 @@
 package org.orecruncher.dsurround.expression;
 
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 public class BattleVariables extends DynamicVariantList {
 
 	public BattleVariables() {
-		add(new Dynamic.DynamicBoolean("battle.inBattle", () -> EnvironState.getBattleScanner().inBattle()));
-		add(new Dynamic.DynamicBoolean("battle.isBoss", () -> EnvironState.getBattleScanner().isBoss()));
-		add(new Dynamic.DynamicBoolean("battle.isWither", () -> EnvironState.getBattleScanner().isWither()));
-		add(new Dynamic.DynamicBoolean("battle.isDragon", () -> EnvironState.getBattleScanner().isDragon()));
-		add(new Dynamic.DynamicNumber("battle.hostileCount",
+		add(new LazyVariant.LazyBoolean("battle.inBattle", () -> EnvironState.getBattleScanner().inBattle()));
+		add(new LazyVariant.LazyBoolean("battle.isBoss", () -> EnvironState.getBattleScanner().isBoss()));
+		add(new LazyVariant.LazyBoolean("battle.isWither", () -> EnvironState.getBattleScanner().isWither()));
+		add(new LazyVariant.LazyBoolean("battle.isDragon", () -> EnvironState.getBattleScanner().isDragon()));
+		add(new LazyVariant.LazyNumber("battle.hostileCount",
 				() -> (float) EnvironState.getBattleScanner().hostileCount()));
 	}
 }
@@ -23,18 +23,17 @@
 package org.orecruncher.dsurround.expression;
 
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 public class BiomeVariables extends DynamicVariantList {
 
 	public BiomeVariables() {
-		add(new Dynamic.DynamicString("biome.name", () -> EnvironState.getBiomeName()));
-		add(new Dynamic.DynamicString("biome.id", () -> EnvironState.getPlayerBiome().getKey().toString()));
-		add(new Dynamic.DynamicString("biome.modid", () -> EnvironState.getPlayerBiome().getKey().getNamespace()));
-		add(new Dynamic.DynamicString("biome.temperature", () -> EnvironState.getBiomeTemperature().getValue()));
-		add(new Dynamic.DynamicNumber("biome.rainfall", () -> EnvironState.getPlayerBiome().getRainfall()));
-		add(new Dynamic.DynamicNumber("biome.temperatureValue", () -> EnvironState.getPlayerBiome().getTemperature()));
-		add(new Dynamic.DynamicString("biome.traits", () -> EnvironState.getPlayerBiome().getBiomeTraits()));
+		add(new LazyVariant.LazyString("biome.name", () -> EnvironState.getBiomeName()));
+		add(new LazyVariant.LazyString("biome.id", () -> EnvironState.getPlayerBiome().getKey().toString()));
+		add(new LazyVariant.LazyString("biome.modid", () -> EnvironState.getPlayerBiome().getKey().getNamespace()));
+		add(new LazyVariant.LazyString("biome.temperature", () -> EnvironState.getBiomeTemperature().getValue()));
+		add(new LazyVariant.LazyNumber("biome.rainfall", () -> EnvironState.getPlayerBiome().getRainfall()));
+		add(new LazyVariant.LazyNumber("biome.temperatureValue", () -> EnvironState.getPlayerBiome().getTemperature()));
+		add(new LazyVariant.LazyString("biome.traits", () -> EnvironState.getPlayerBiome().getBiomeTraits()));
 	}
 }
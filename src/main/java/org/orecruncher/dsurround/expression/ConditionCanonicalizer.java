@@ -0,0 +1,216 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Rewrites a condition into a canonical form so that the same condition
+ * written different ways shares one compiled instance. Whitespace and
+ * redundant parentheses are dropped, names are lower cased (they are not case
+ * sensitive), "=" and "<>" become "==" and "!=", numbers are normalized, and
+ * the operands of chains of && and || are sorted.
+ */
+final class ConditionCanonicalizer {
+
+	// Binding strength of the operators, loosest first
+	private static final int OR = 1;
+	private static final int AND = 2;
+	private static final int EQUALITY = 3;
+	private static final int RELATIONAL = 4;
+	private static final int ADDITIVE = 5;
+	private static final int MULTIPLICATIVE = 6;
+	private static final int UNARY = 7;
+	private static final int PRIMARY = 8;
+
+	private static final class Term {
+		public final int level;
+		public final String text;
+		// Operands when the term is a chain of && or ||
+		public final List<String> operands;
+
+		public Term(final int level, @Nonnull final String text, @Nullable final List<String> operands) {
+			this.level = level;
+			this.text = text;
+			this.operands = operands;
+		}
+	}
+
+	private final List<String> tokens;
+	private int current;
+
+	private ConditionCanonicalizer(@Nonnull final List<String> tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * Returns the canonical form of the condition, or null if it uses syntax that
+	 * is not understood.
+	 */
+	@Nullable
+	public static String canonicalize(@Nonnull final String expression) {
+		try {
+			final ConditionCanonicalizer c = new ConditionCanonicalizer(ConditionCompiler.tokenize(expression));
+			final Term term = c.parseChain(OR, "||");
+			return c.current == c.tokens.size() ? term.text : null;
+		} catch (@Nonnull final ConditionCompiler.Unsupported ex) {
+			return null;
+		}
+	}
+
+	@Nullable
+	private String peek() {
+		return this.current < this.tokens.size() ? this.tokens.get(this.current) : null;
+	}
+
+	private boolean accept(@Nonnull final String token) {
+		if (token.equals(peek())) {
+			this.current++;
+			return true;
+		}
+		return false;
+	}
+
+	@Nonnull
+	private static String wrap(@Nonnull final Term term, final int level) {
+		return term.level < level ? "(" + term.text + ")" : term.text;
+	}
+
+	@Nonnull
+	private Term parseChain(final int level, @Nonnull final String op) {
+		final Term first = level == OR ? parseChain(AND, "&&") : parseBinary(EQUALITY);
+		if (!op.equals(peek()))
+			return first;
+
+		final List<String> operands = new ArrayList<>();
+		addOperand(operands, first, level);
+		while (accept(op))
+			addOperand(operands, level == OR ? parseChain(AND, "&&") : parseBinary(EQUALITY), level);
+		Collections.sort(operands);
+		return new Term(level, String.join(" " + op + " ", operands), operands);
+	}
+
+	private static void addOperand(@Nonnull final List<String> operands, @Nonnull final Term term, final int level) {
+		if (term.level == level && term.operands != null)
+			operands.addAll(term.operands);
+		else
+			operands.add(wrap(term, level + 1));
+	}
+
+	@Nonnull
+	private Term parseBinary(final int level) {
+		if (level == UNARY)
+			return parseUnary();
+
+		Term left = parseBinary(level + 1);
+		for (;;) {
+			final String op = operator(level, peek());
+			if (op == null)
+				return left;
+			this.current++;
+			final Term right = parseBinary(level + 1);
+			left = new Term(level, wrap(left, level) + " " + op + " " + wrap(right, level + 1), null);
+		}
+	}
+
+	// Canonical spelling of the token if it is an operator at the level
+	@Nullable
+	private static String operator(final int level, @Nullable final String token) {
+		if (token == null)
+			return null;
+		switch (level) {
+		case EQUALITY:
+			if ("==".equals(token) || "=".equals(token))
+				return "==";
+			if ("!=".equals(token) || "<>".equals(token))
+				return "!=";
+			return null;
+		case RELATIONAL:
+			return "<".equals(token) || "<=".equals(token) || ">".equals(token) || ">=".equals(token) ? token : null;
+		case ADDITIVE:
+			return "+".equals(token) || "-".equals(token) ? token : null;
+		case MULTIPLICATIVE:
+			return "*".equals(token) || "/".equals(token) || "%".equals(token) ? token : null;
+		default:
+			return null;
+		}
+	}
+
+	@Nonnull
+	private Term parseUnary() {
+		if (accept("!"))
+			return new Term(UNARY, "!" + wrap(parseUnary(), UNARY), null);
+		if (accept("-"))
+			return new Term(UNARY, "-" + wrap(parseUnary(), UNARY), null);
+		return parsePrimary();
+	}
+
+	@Nonnull
+	private Term parsePrimary() {
+		final String token = peek();
+		if (token == null)
+			throw ConditionCompiler.UNSUPPORTED;
+		this.current++;
+
+		if ("(".equals(token)) {
+			final Term inner = parseChain(OR, "||");
+			if (!accept(")"))
+				throw ConditionCompiler.UNSUPPORTED;
+			return inner;
+		}
+
+		final char first = token.charAt(0);
+		if (first == '\'')
+			return new Term(PRIMARY, token + "'", null);
+
+		if (Character.isDigit(first) || first == '.') {
+			try {
+				return new Term(PRIMARY, Float.toString(Float.parseFloat(token)), null);
+			} catch (@Nonnull final NumberFormatException ex) {
+				throw ConditionCompiler.UNSUPPORTED;
+			}
+		}
+
+		if (!Character.isLetter(first) && first != '_')
+			throw ConditionCompiler.UNSUPPORTED;
+
+		if (!accept("("))
+			return new Term(PRIMARY, token.toLowerCase(Locale.ROOT), null);
+
+		final List<String> args = new ArrayList<>();
+		if (!accept(")")) {
+			do {
+				args.add(parseChain(OR, "||").text);
+			} while (accept(","));
+			if (!accept(")"))
+				throw ConditionCompiler.UNSUPPORTED;
+		}
+		return new Term(PRIMARY, token.toUpperCase(Locale.ROOT) + "(" + String.join(", ", args) + ")", null);
+	}
+}
@@ -0,0 +1,506 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.expression.Dynamic;
+import org.orecruncher.lib.expression.Variant;
+
+/**
+ * Compiles condition expressions into typed evaluator trees. Boolean nodes are
+ * ICondition instances, and number and string nodes evaluate to primitives and
+ * Strings, so a check reads the Dynamic variables directly without producing
+ * intermediate variants.
+ *
+ * Only the part of the expression language used by conditions is handled:
+ * ||, &&, !, comparisons, arithmetic, number and string literals, TRUE/FALSE,
+ * MATCH() and ONEOF(). Anything else, including type mixes the interpreter
+ * would coerce, makes compile() return null so that the caller can fall back
+ * to the interpreter. Variable and function names are not case sensitive, the
+ * same as the interpreter.
+ *
+ * The variables a condition reads are recorded while it is compiled. When all
+ * of them are LazyVariants the condition is wrapped so that its result is
+ * reused until one of them changes value.
+ */
+final class ConditionCompiler {
+
+	@FunctionalInterface
+	interface INumberNode {
+		float eval();
+	}
+
+	@FunctionalInterface
+	interface IStringNode {
+		String eval();
+	}
+
+	// Thrown when the expression goes beyond what can be compiled
+	static final class Unsupported extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public Unsupported() {
+			super(null, null, false, false);
+		}
+	}
+
+	static final Unsupported UNSUPPORTED = new Unsupported();
+	private static final ICondition FALSE = () -> false;
+
+	private final Map<String, Variant> variables;
+
+	private List<String> tokens;
+	private int current;
+
+	// Variables read by the condition being compiled. If a variable that does
+	// not track versions is read the result cannot be memoized.
+	private final List<LazyVariant> dependencies = new ArrayList<>();
+	private boolean memoizable;
+
+	public ConditionCompiler(@Nonnull final Map<String, Variant> variables) {
+		this.variables = variables;
+	}
+
+	@Nullable
+	public ICondition compile(@Nonnull final String expression) {
+		try {
+			this.tokens = tokenize(expression);
+			this.current = 0;
+			this.dependencies.clear();
+			this.memoizable = true;
+			final Object node = parseOr();
+			if (this.current != this.tokens.size() || !(node instanceof ICondition))
+				return null;
+			if (!this.memoizable)
+				return (ICondition) node;
+			return new MemoizedCondition((ICondition) node, this.dependencies.toArray(new LazyVariant[0]));
+		} catch (@Nonnull final Unsupported ex) {
+			return null;
+		} finally {
+			this.tokens = null;
+			this.dependencies.clear();
+		}
+	}
+
+	// Tokens are kept as strings. String literals keep their leading quote so
+	// they can be told apart from identifiers.
+	@Nonnull
+	static List<String> tokenize(@Nonnull final String exp) {
+		final List<String> result = new ArrayList<>();
+		int i = 0;
+		while (i < exp.length()) {
+			final char c = exp.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '\'') {
+				final int end = exp.indexOf('\'', i + 1);
+				if (end < 0)
+					throw UNSUPPORTED;
+				result.add(exp.substring(i, end));
+				i = end + 1;
+			} else if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+				final int start = i;
+				while (i < exp.length()) {
+					final char ch = exp.charAt(i);
+					if (!(Character.isLetterOrDigit(ch) || ch == '_' || ch == '.'))
+						break;
+					i++;
+				}
+				result.add(exp.substring(start, i));
+			} else if (c == '(' || c == ')' || c == ',' || c == '+' || c == '-' || c == '*' || c == '/'
+					|| c == '%') {
+				result.add(String.valueOf(c));
+				i++;
+			} else {
+				final String two = i + 1 < exp.length() ? exp.substring(i, i + 2) : "";
+				switch (two) {
+				case "&&":
+				case "||":
+				case "==":
+				case "!=":
+				case "<>":
+				case "<=":
+				case ">=":
+					result.add(two);
+					i += 2;
+					break;
+				default:
+					if (c != '!' && c != '<' && c != '>' && c != '=')
+						throw UNSUPPORTED;
+					result.add(String.valueOf(c));
+					i++;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Nullable
+	private String peek() {
+		return this.current < this.tokens.size() ? this.tokens.get(this.current) : null;
+	}
+
+	private boolean accept(@Nonnull final String token) {
+		if (token.equals(peek())) {
+			this.current++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(@Nonnull final String token) {
+		if (!accept(token))
+			throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private static ICondition asCondition(@Nonnull final Object node) {
+		if (node instanceof ICondition)
+			return (ICondition) node;
+		throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private static INumberNode asNumber(@Nonnull final Object node) {
+		if (node instanceof INumberNode)
+			return (INumberNode) node;
+		throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private static IStringNode asString(@Nonnull final Object node) {
+		if (node instanceof IStringNode)
+			return (IStringNode) node;
+		throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private Object parseOr() {
+		Object left = parseAnd();
+		while (accept("||")) {
+			final ICondition l = asCondition(left);
+			final ICondition r = asCondition(parseAnd());
+			left = (ICondition) () -> l.check() || r.check();
+		}
+		return left;
+	}
+
+	@Nonnull
+	private Object parseAnd() {
+		Object left = parseEquality();
+		while (accept("&&")) {
+			final ICondition l = asCondition(left);
+			final ICondition r = asCondition(parseEquality());
+			left = (ICondition) () -> l.check() && r.check();
+		}
+		return left;
+	}
+
+	@Nonnull
+	private Object parseEquality() {
+		Object left = parseRelational();
+		for (;;) {
+			final boolean equal;
+			if (accept("==") || accept("="))
+				equal = true;
+			else if (accept("!=") || accept("<>"))
+				equal = false;
+			else
+				return left;
+
+			final Object right = parseRelational();
+			final ICondition test;
+			if (left instanceof ICondition && right instanceof ICondition) {
+				final ICondition l = (ICondition) left;
+				final ICondition r = (ICondition) right;
+				test = () -> l.check() == r.check();
+			} else if (left instanceof INumberNode && right instanceof INumberNode) {
+				final INumberNode l = (INumberNode) left;
+				final INumberNode r = (INumberNode) right;
+				test = () -> Float.compare(l.eval(), r.eval()) == 0;
+			} else if (left instanceof IStringNode && right instanceof IStringNode) {
+				final IStringNode l = (IStringNode) left;
+				final IStringNode r = (IStringNode) right;
+				test = () -> l.eval().equals(r.eval());
+			} else {
+				throw UNSUPPORTED;
+			}
+			left = equal ? test : (ICondition) () -> !test.check();
+		}
+	}
+
+	@Nonnull
+	private Object parseRelational() {
+		Object left = parseAdditive();
+		for (;;) {
+			final String op = peek();
+			if (!"<".equals(op) && !"<=".equals(op) && !">".equals(op) && !">=".equals(op))
+				return left;
+			this.current++;
+			final INumberNode l = asNumber(left);
+			final INumberNode r = asNumber(parseAdditive());
+			switch (op) {
+			case "<":
+				left = (ICondition) () -> l.eval() < r.eval();
+				break;
+			case "<=":
+				left = (ICondition) () -> l.eval() <= r.eval();
+				break;
+			case ">":
+				left = (ICondition) () -> l.eval() > r.eval();
+				break;
+			default:
+				left = (ICondition) () -> l.eval() >= r.eval();
+				break;
+			}
+		}
+	}
+
+	@Nonnull
+	private Object parseAdditive() {
+		Object left = parseMultiplicative();
+		for (;;) {
+			if (accept("+")) {
+				final Object right = parseMultiplicative();
+				if (left instanceof StringConstant && right instanceof StringConstant) {
+					left = new StringConstant(((StringConstant) left).value.concat(((StringConstant) right).value));
+				} else if (left instanceof IStringNode && right instanceof IStringNode) {
+					final IStringNode l = (IStringNode) left;
+					final IStringNode r = (IStringNode) right;
+					left = (IStringNode) () -> l.eval().concat(r.eval());
+				} else {
+					final INumberNode l = asNumber(left);
+					final INumberNode r = asNumber(right);
+					left = (INumberNode) () -> l.eval() + r.eval();
+				}
+			} else if (accept("-")) {
+				final INumberNode l = asNumber(left);
+				final INumberNode r = asNumber(parseMultiplicative());
+				left = (INumberNode) () -> l.eval() - r.eval();
+			} else {
+				return left;
+			}
+		}
+	}
+
+	@Nonnull
+	private Object parseMultiplicative() {
+		Object left = parseUnary();
+		for (;;) {
+			final String op = peek();
+			if (!"*".equals(op) && !"/".equals(op) && !"%".equals(op))
+				return left;
+			this.current++;
+			final INumberNode l = asNumber(left);
+			final INumberNode r = asNumber(parseUnary());
+			switch (op) {
+			case "*":
+				left = (INumberNode) () -> l.eval() * r.eval();
+				break;
+			case "/":
+				left = (INumberNode) () -> l.eval() / r.eval();
+				break;
+			default:
+				left = (INumberNode) () -> l.eval() % r.eval();
+				break;
+			}
+		}
+	}
+
+	@Nonnull
+	private Object parseUnary() {
+		if (accept("!")) {
+			final ICondition operand = asCondition(parseUnary());
+			return (ICondition) () -> !operand.check();
+		}
+		if (accept("-")) {
+			final Object operand = parseUnary();
+			if (operand instanceof Constant) {
+				final float value = -((Constant) operand).value;
+				return new Constant(value);
+			}
+			final INumberNode n = asNumber(operand);
+			return (INumberNode) () -> -n.eval();
+		}
+		return parsePrimary();
+	}
+
+	@Nonnull
+	private Object parsePrimary() {
+		final String token = peek();
+		if (token == null)
+			throw UNSUPPORTED;
+		this.current++;
+
+		if ("(".equals(token)) {
+			final Object node = parseOr();
+			expect(")");
+			return node;
+		}
+
+		final char first = token.charAt(0);
+		if (first == '\'') {
+			return new StringConstant(token.substring(1));
+		}
+
+		if (Character.isDigit(first) || first == '.') {
+			try {
+				return new Constant(Float.parseFloat(token));
+			} catch (@Nonnull final NumberFormatException ex) {
+				throw UNSUPPORTED;
+			}
+		}
+
+		if (Character.isLetter(first) || first == '_') {
+			if ("(".equals(peek()))
+				return parseFunction(token);
+			if ("TRUE".equalsIgnoreCase(token))
+				return ICondition.TRUE;
+			if ("FALSE".equalsIgnoreCase(token))
+				return FALSE;
+			return variable(token);
+		}
+
+		throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private Object variable(@Nonnull final String name) {
+		final Variant v = this.variables.get(name);
+		if (v instanceof LazyVariant) {
+			if (!this.dependencies.contains(v))
+				this.dependencies.add((LazyVariant) v);
+		} else {
+			this.memoizable = false;
+		}
+
+		if (v instanceof LazyVariant.LazyBoolean)
+			return (ICondition) v::asBoolean;
+		if (v instanceof LazyVariant.LazyNumber)
+			return (INumberNode) v::asNumber;
+		if (v instanceof LazyVariant.LazyString)
+			return (IStringNode) v::asString;
+		if (v instanceof Dynamic.DynamicBoolean)
+			return (ICondition) v::asBoolean;
+		if (v instanceof Dynamic.DynamicNumber)
+			return (INumberNode) v::asNumber;
+		if (v instanceof Dynamic.DynamicString)
+			return (IStringNode) v::asString;
+		throw UNSUPPORTED;
+	}
+
+	@Nonnull
+	private Object parseFunction(@Nonnull final String name) {
+		expect("(");
+		final List<Object> args = new ArrayList<>();
+		if (!accept(")")) {
+			do {
+				args.add(parseOr());
+			} while (accept(","));
+			expect(")");
+		}
+
+		if ("MATCH".equalsIgnoreCase(name)) {
+			// The pattern has to be a literal so it can be compiled once. A
+			// pattern read from a variable is left to the interpreter.
+			if (args.size() != 2 || !(args.get(0) instanceof StringConstant))
+				throw UNSUPPORTED;
+			final Pattern pattern;
+			try {
+				pattern = Pattern.compile(((StringConstant) args.get(0)).value);
+			} catch (@Nonnull final PatternSyntaxException ex) {
+				throw UNSUPPORTED;
+			}
+			final IStringNode subject = asString(args.get(1));
+			return (ICondition) () -> pattern.matcher(subject.eval()).matches();
+		}
+
+		if ("ONEOF".equalsIgnoreCase(name)) {
+			if (args.size() < 2)
+				throw UNSUPPORTED;
+			if (args.get(0) instanceof IStringNode) {
+				final IStringNode subject = (IStringNode) args.get(0);
+				final IStringNode[] choices = new IStringNode[args.size() - 1];
+				for (int i = 0; i < choices.length; i++)
+					choices[i] = asString(args.get(i + 1));
+				return (ICondition) () -> {
+					final String value = subject.eval();
+					for (final IStringNode choice : choices)
+						if (value.equals(choice.eval()))
+							return true;
+					return false;
+				};
+			}
+			final INumberNode subject = asNumber(args.get(0));
+			final INumberNode[] choices = new INumberNode[args.size() - 1];
+			for (int i = 0; i < choices.length; i++)
+				choices[i] = asNumber(args.get(i + 1));
+			return (ICondition) () -> {
+				final float value = subject.eval();
+				for (final INumberNode choice : choices)
+					if (Float.compare(value, choice.eval()) == 0)
+						return true;
+				return false;
+			};
+		}
+
+		throw UNSUPPORTED;
+	}
+
+	// Number literal. Kept distinct so that a leading minus folds into it.
+	private static final class Constant implements INumberNode {
+		public final float value;
+
+		public Constant(final float value) {
+			this.value = value;
+		}
+
+		@Override
+		public float eval() {
+			return this.value;
+		}
+	}
+
+	// String literal. Kept distinct so that MATCH() can tell a fixed pattern
+	// from one that is read from a variable.
+	private static final class StringConstant implements IStringNode {
+		public final String value;
+
+		public StringConstant(@Nonnull final String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String eval() {
+			return this.value;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.collections.ObjectArray;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * Assigns each distinct condition registered with the set a bit index and
+ * evaluates all of them at most once per ExpressionEngine generation, that is
+ * once per variable reset. Consumers record the indices of their conditions
+ * and test the bits of the evaluated state rather than checking the conditions
+ * themselves, so a condition shared by several owners is only evaluated once.
+ */
+public final class ConditionSet {
+
+	private final Reference2IntOpenHashMap<ICondition> index = new Reference2IntOpenHashMap<>();
+	private final ObjectArray<ICondition> conditions = new ObjectArray<>();
+	private long[] state = new long[1];
+	private int generation = Integer.MIN_VALUE;
+
+	public ConditionSet() {
+		this.index.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Obtains the bit index for the condition, assigning a new one if the
+	 * condition has not been seen before.
+	 */
+	public int register(@Nonnull final ICondition condition) {
+		int idx = this.index.getInt(condition);
+		if (idx < 0) {
+			idx = this.conditions.size();
+			this.conditions.add(condition);
+			this.index.put(condition, idx);
+			if ((idx >> 6) >= this.state.length)
+				this.state = Arrays.copyOf(this.state, this.state.length * 2);
+			this.generation = Integer.MIN_VALUE;
+		}
+		return idx;
+	}
+
+	/**
+	 * Evaluates the registered conditions if they have not already been evaluated
+	 * for the generation and returns the resulting bits.
+	 */
+	@Nonnull
+	public long[] evaluate(final int generation) {
+		if (this.generation != generation) {
+			final long[] bits = this.state;
+			Arrays.fill(bits, 0L);
+			for (int i = 0; i < this.conditions.size(); i++) {
+				if (this.conditions.get(i).check())
+					bits[i >> 6] |= 1L << i;
+			}
+			this.generation = generation;
+		}
+		return this.state;
+	}
+
+	public int size() {
+		return this.conditions.size();
+	}
+
+	public void clear() {
+		this.index.clear();
+		this.conditions.clear();
+		this.state = new long[1];
+		this.generation = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Sets the bit for the index in the mask, growing the mask if needed.
+	 */
+	@Nonnull
+	public static long[] set(@Nonnull final long[] mask, final int idx) {
+		final int word = idx >> 6;
+		final long[] result = word < mask.length ? mask : Arrays.copyOf(mask, word + 1);
+		result[word] |= 1L << idx;
+		return result;
+	}
+
+	public static boolean isSet(@Nonnull final long[] bits, final int idx) {
+		final int word = idx >> 6;
+		return word < bits.length && (bits[word] & (1L << idx)) != 0;
+	}
+
+	/**
+	 * Indicates whether any bit of the mask is set in the provided bits.
+	 */
+	public static boolean intersects(@Nonnull final long[] mask, @Nonnull final long[] bits) {
+		final int len = Math.min(mask.length, bits.length);
+		for (int i = 0; i < len; i++)
+			if ((mask[i] & bits[i]) != 0)
+				return true;
+		return false;
+	}
+}
@@ -23,7 +23,6 @@
 package org.orecruncher.dsurround.expression;
 
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 import net.minecraft.world.World;
@@ -31,9 +30,9 @@ import net.minecraft.world.World;
 public class DimensionVariables extends DynamicVariantList {
 
 	public DimensionVariables() {
-		add(new Dynamic.DynamicNumber("dim.id", () -> (float) EnvironState.getDimensionId()));
-		add(new Dynamic.DynamicString("dim.name", () -> EnvironState.getDimensionName()));
-		add(new Dynamic.DynamicBoolean("dim.hasSky", () -> {
+		add(new LazyVariant.LazyNumber("dim.id", () -> (float) EnvironState.getDimensionId()));
+		add(new LazyVariant.LazyString("dim.name", () -> EnvironState.getDimensionName()));
+		add(new LazyVariant.LazyBoolean("dim.hasSky", () -> {
 			final World world = EnvironState.getWorld();
 			return world != null && world.provider.hasSkyLight();
 		}));
@@ -25,20 +25,19 @@ package org.orecruncher.dsurround.expression;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.lib.DiurnalUtils;
 import org.orecruncher.lib.DiurnalUtils.DayCycle;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 public class DiurnalVariables extends DynamicVariantList {
 
 	public DiurnalVariables() {
-		add(new Dynamic.DynamicBoolean("diurnal.isDay", () -> EnvironState.getDayCycle() == DayCycle.DAYTIME));
-		add(new Dynamic.DynamicBoolean("diurnal.isNight", () -> EnvironState.getDayCycle() == DayCycle.NIGHTTIME));
-		add(new Dynamic.DynamicBoolean("diurnal.isSunrise", () -> EnvironState.getDayCycle() == DayCycle.SUNRISE));
-		add(new Dynamic.DynamicBoolean("diurnal.isSunset", () -> EnvironState.getDayCycle() == DayCycle.SUNSET));
-		add(new Dynamic.DynamicBoolean("diurnal.isAuroraVisible", () -> EnvironState.getDayCycle() == DayCycle.SUNRISE
+		add(new LazyVariant.LazyBoolean("diurnal.isDay", () -> EnvironState.getDayCycle() == DayCycle.DAYTIME));
+		add(new LazyVariant.LazyBoolean("diurnal.isNight", () -> EnvironState.getDayCycle() == DayCycle.NIGHTTIME));
+		add(new LazyVariant.LazyBoolean("diurnal.isSunrise", () -> EnvironState.getDayCycle() == DayCycle.SUNRISE));
+		add(new LazyVariant.LazyBoolean("diurnal.isSunset", () -> EnvironState.getDayCycle() == DayCycle.SUNSET));
+		add(new LazyVariant.LazyBoolean("diurnal.isAuroraVisible", () -> EnvironState.getDayCycle() == DayCycle.SUNRISE
 				|| EnvironState.getDayCycle() == DayCycle.DAYTIME));
-		add(new Dynamic.DynamicNumber("diurnal.moonPhaseFactor",
+		add(new LazyVariant.LazyNumber("diurnal.moonPhaseFactor",
 				() -> DiurnalUtils.getMoonPhaseFactor(EnvironState.getWorld())));
-		add(new Dynamic.DynamicNumber("diurnal.celestialAngle", () -> EnvironState.getWorld().getCelestialAngle(0)));
+		add(new LazyVariant.LazyNumber("diurnal.celestialAngle", () -> EnvironState.getWorld().getCelestialAngle(0)));
 	}
 }
@@ -23,23 +23,34 @@
 package org.orecruncher.dsurround.expression;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.lib.expression.ExpressionCache;
 import org.orecruncher.lib.expression.IDynamicVariant;
 import org.orecruncher.lib.expression.IVariant;
+import org.orecruncher.lib.expression.Variant;
 
 public final class ExpressionEngine {
 
-	private static ExpressionEngine instance;
+	// Created when the class is first used. Registries that initialize in
+	// parallel compile their conditions through the same instance.
+	private static final ExpressionEngine INSTANCE = new ExpressionEngine();
 
 	public static ExpressionEngine instance() {
-		if (instance == null)
-			instance = new ExpressionEngine();
-		return instance;
+		return INSTANCE;
 	}
 
 	private final ExpressionCache cache = new ExpressionCache(ModBase.log());
+	private final Map<String, ICondition> conditions = new ConcurrentHashMap<>();
+	private final ConditionCompiler compiler;
+	private int generation;
 
 	private ExpressionEngine() {
 		this.cache.add(new BattleVariables());
@@ -50,10 +61,29 @@ public final class ExpressionEngine {
 		this.cache.add(new PlayerVariables());
 		this.cache.add(new SeasonVariables());
 		this.cache.add(new WeatherVariables());
+
+		final Map<String, Variant> variables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (final IDynamicVariant v : getVariables())
+			if (v instanceof Variant)
+				variables.put(((Variant) v).getName(), (Variant) v);
+		this.compiler = new ConditionCompiler(variables);
 	}
 
+	/**
+	 * Marks the variables stale. Each one is recomputed the first time it is
+	 * read after the reset.
+	 */
 	public void reset() {
 		this.cache.reset();
+		this.generation++;
+	}
+
+	/**
+	 * Incremented by each reset(). Results derived from the variables can be
+	 * kept for as long as the generation is unchanged.
+	 */
+	public int getGeneration() {
+		return this.generation;
 	}
 
 	public List<IDynamicVariant> getVariables() {
@@ -72,4 +102,51 @@ public final class ExpressionEngine {
 		return this.cache.check(exp);
 	}
 
+	/**
+	 * Prepares a condition for repeated checks. Meant to be called when a
+	 * registry loads. Conditions are compiled into typed evaluator trees when
+	 * possible; the rest are checked through the interpreter. Conditions are
+	 * reduced to a canonical form first so that the same condition written
+	 * different ways, in whatever registry, shares one instance. Safe to call
+	 * from the registry loader threads.
+	 */
+	@Nonnull
+	public ICondition compile(@Nullable final String exp) {
+		if (StringUtils.isEmpty(exp))
+			return ICondition.TRUE;
+
+		ICondition result = this.conditions.get(exp);
+		if (result == null) {
+			// The compiler is not reentrant, and the lookup and insert of the
+			// canonical form have to be atomic so that one instance is handed out
+			// per condition.
+			synchronized (this.compiler) {
+				result = this.conditions.get(exp);
+				if (result == null) {
+					final String canonical = ConditionCanonicalizer.canonicalize(exp);
+					final String key = canonical != null ? canonical : exp;
+					result = this.conditions.get(key);
+					if (result == null) {
+						if (canonical != null)
+							result = this.compiler.compile(canonical);
+						if (result == null)
+							result = () -> this.cache.check(exp);
+						this.conditions.put(key, result);
+					}
+					this.conditions.put(exp, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determines if the condition can be compiled rather than interpreted
+	 */
+	boolean isCompiled(@Nonnull final String exp) {
+		synchronized (this.compiler) {
+			return this.compiler.compile(exp) != null;
+		}
+	}
+
 }
@@ -0,0 +1,291 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.expression.BooleanValue;
+import org.orecruncher.lib.expression.Dynamic;
+import org.orecruncher.lib.expression.IVariant;
+import org.orecruncher.lib.expression.NumberValue;
+import org.orecruncher.lib.expression.StringValue;
+
+import com.google.common.primitives.Booleans;
+
+/**
+ * Dynamic variable that is only computed when it is read. The per tick
+ * update() from the ExpressionCache just marks the value stale; the supplier
+ * runs the first time the value is read after that. Variables that no active
+ * condition reads during a tick cost nothing.
+ *
+ * The version is bumped whenever a refresh produces a different value so that
+ * results computed from the variable can tell whether they are out of date.
+ */
+public abstract class LazyVariant extends Dynamic {
+
+	private boolean stale = true;
+	private boolean held;
+	protected int version;
+
+	public LazyVariant(@Nonnull final String name) {
+		super(name);
+	}
+
+	@Override
+	public void update() {
+		if (!this.held)
+			this.stale = true;
+	}
+
+	/**
+	 * Stops the variable from refreshing. It keeps its current value, or the
+	 * type default if it has never been read, so it can be used without a client
+	 * world such as in the headless benchmark.
+	 */
+	void hold() {
+		this.held = true;
+		this.stale = false;
+	}
+
+	/**
+	 * Marks the value as changed without refreshing it, so that memoized results
+	 * that read the variable are computed again.
+	 */
+	void touch() {
+		this.version++;
+	}
+
+	/**
+	 * Recomputes the value from the supplier
+	 */
+	protected abstract void refresh();
+
+	/**
+	 * Version of the current value. Refreshes the value if it is stale.
+	 */
+	public int getVersion() {
+		ensureCurrent();
+		return this.version;
+	}
+
+	protected final void ensureCurrent() {
+		if (this.stale) {
+			this.stale = false;
+			refresh();
+		}
+	}
+
+	@FunctionalInterface
+	public interface IFloatSupplier {
+		float getAsFloat();
+	}
+
+	public static class LazyBoolean extends LazyVariant {
+
+		private final BooleanSupplier supplier;
+		private boolean value;
+
+		public LazyBoolean(@Nonnull final String name, @Nonnull final BooleanSupplier supplier) {
+			super(name);
+			this.supplier = supplier;
+		}
+
+		/**
+		 * Holds the variable at the provided value. See hold().
+		 */
+		void hold(final boolean v) {
+			if (v != this.value) {
+				this.value = v;
+				this.version++;
+			}
+			hold();
+		}
+
+		@Override
+		protected void refresh() {
+			final boolean v = this.supplier.getAsBoolean();
+			if (v != this.value) {
+				this.value = v;
+				this.version++;
+			}
+		}
+
+		@Override
+		public int compareTo(@Nonnull final IVariant o) {
+			return Booleans.compare(asBoolean(), o.asBoolean());
+		}
+
+		@Override
+		public float asNumber() {
+			return asBoolean() ? 1 : 0;
+		}
+
+		@Override
+		public String asString() {
+			return Boolean.toString(asBoolean());
+		}
+
+		@Override
+		public boolean asBoolean() {
+			ensureCurrent();
+			return this.value;
+		}
+
+		@Nonnull
+		@Override
+		public IVariant add(@Nonnull final IVariant term) {
+			return new BooleanValue(asBoolean() || term.asBoolean());
+		}
+	}
+
+	public static class LazyNumber extends LazyVariant {
+
+		private final IFloatSupplier supplier;
+		private float value;
+
+		public LazyNumber(@Nonnull final String name, @Nonnull final IFloatSupplier supplier) {
+			super(name);
+			this.supplier = supplier;
+		}
+
+		/**
+		 * Holds the variable at the provided value. See hold().
+		 */
+		void hold(final float v) {
+			if (Float.compare(v, this.value) != 0) {
+				this.value = v;
+				this.version++;
+			}
+			hold();
+		}
+
+		@Override
+		protected void refresh() {
+			final float v = this.supplier.getAsFloat();
+			if (Float.compare(v, this.value) != 0) {
+				this.value = v;
+				this.version++;
+			}
+		}
+
+		@Override
+		public int compareTo(@Nonnull final IVariant o) {
+			return Float.compare(asNumber(), o.asNumber());
+		}
+
+		@Override
+		public float asNumber() {
+			ensureCurrent();
+			return this.value;
+		}
+
+		@Override
+		public String asString() {
+			return Float.toString(asNumber());
+		}
+
+		@Override
+		public boolean asBoolean() {
+			return asNumber() != 0F;
+		}
+
+		@Nonnull
+		@Override
+		public IVariant add(@Nonnull final IVariant term) {
+			return new NumberValue(asNumber() + term.asNumber());
+		}
+	}
+
+	public static class LazyString extends LazyVariant {
+
+		private final Supplier<String> supplier;
+		private String value;
+
+		public LazyString(@Nonnull final String name, @Nonnull final Supplier<String> supplier) {
+			super(name);
+			this.supplier = supplier;
+		}
+
+		@Override
+		void hold() {
+			if (this.value == null)
+				this.value = "";
+			super.hold();
+		}
+
+		/**
+		 * Holds the variable at the provided value. See hold().
+		 */
+		void hold(@Nonnull final String v) {
+			if (!v.equals(this.value)) {
+				this.value = v;
+				this.version++;
+			}
+			super.hold();
+		}
+
+		@Override
+		protected void refresh() {
+			final String v = this.supplier.get();
+			if (!Objects.equals(v, this.value)) {
+				this.value = v;
+				this.version++;
+			}
+		}
+
+		@Override
+		public int compareTo(@Nonnull final IVariant o) {
+			return asString().compareTo(o.asString());
+		}
+
+		@Override
+		public float asNumber() {
+			try {
+				return Float.parseFloat(asString());
+			} catch (@Nonnull final NumberFormatException ex) {
+				return 0;
+			}
+		}
+
+		@Override
+		public String asString() {
+			ensureCurrent();
+			return this.value;
+		}
+
+		@Override
+		public boolean asBoolean() {
+			return Boolean.parseBoolean(asString());
+		}
+
+		@Nonnull
+		@Override
+		public IVariant add(@Nonnull final IVariant term) {
+			return new StringValue(asString().concat(term.asString()));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Remembers the result of a compiled condition until one of the variables it
+ * reads changes value. A check compares the versions of the variables against
+ * the ones seen when the result was computed and only evaluates the condition
+ * when they differ.
+ */
+final class MemoizedCondition implements ICondition {
+
+	private final ICondition condition;
+	private final LazyVariant[] dependencies;
+	private final int[] versions;
+	private boolean valid;
+	private boolean result;
+
+	public MemoizedCondition(@Nonnull final ICondition condition, @Nonnull final LazyVariant[] dependencies) {
+		this.condition = condition;
+		this.dependencies = dependencies;
+		this.versions = new int[dependencies.length];
+	}
+
+	@Override
+	public boolean check() {
+		boolean current = this.valid;
+		for (int i = 0; i < this.dependencies.length; i++) {
+			final int v = this.dependencies[i].getVersion();
+			if (v != this.versions[i]) {
+				this.versions[i] = v;
+				current = false;
+			}
+		}
+
+		if (!current) {
+			this.result = this.condition.check();
+			this.valid = true;
+		}
+		return this.result;
+	}
+}
@@ -23,7 +23,6 @@
 package org.orecruncher.dsurround.expression;
 
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 import net.minecraft.block.material.Material;
@@ -35,70 +34,70 @@ import net.minecraft.world.World;
 public class PlayerVariables extends DynamicVariantList {
 
 	public PlayerVariables() {
-		add(new Dynamic.DynamicBoolean("player.isHurt", () -> EnvironState.isPlayerHurt()));
-		add(new Dynamic.DynamicBoolean("player.isHungry", () -> EnvironState.isPlayerHungry()));
-		add(new Dynamic.DynamicBoolean("player.isBurning", () -> EnvironState.isPlayerBurning()));
-		add(new Dynamic.DynamicBoolean("player.isSuffocating", () -> EnvironState.isPlayerSuffocating()));
-		add(new Dynamic.DynamicBoolean("player.isFlying", () -> EnvironState.isPlayerFlying()));
-		add(new Dynamic.DynamicBoolean("player.isSprinting", () -> EnvironState.isPlayerSprinting()));
-		add(new Dynamic.DynamicBoolean("player.isInLava", () -> EnvironState.isPlayerInLava()));
-		add(new Dynamic.DynamicBoolean("player.isInvisible", () -> EnvironState.isPlayerInvisible()));
-		add(new Dynamic.DynamicBoolean("player.isBlind", () -> EnvironState.isPlayerBlind()));
-		add(new Dynamic.DynamicBoolean("player.isInWater", () -> EnvironState.isPlayerInWater()));
-		add(new Dynamic.DynamicBoolean("player.isMoving", () -> EnvironState.isPlayerMoving()));
-		add(new Dynamic.DynamicBoolean("player.isInside", () -> EnvironState.isPlayerInside()));
-		add(new Dynamic.DynamicBoolean("player.isUnderground", () -> EnvironState.isPlayerUnderground()));
-		add(new Dynamic.DynamicBoolean("player.isInSpace", () -> EnvironState.isPlayerInSpace()));
-		add(new Dynamic.DynamicBoolean("player.isInClouds", () -> EnvironState.isPlayerInClouds()));
-		add(new Dynamic.DynamicString("player.temperature", () -> EnvironState.getPlayerTemperature().getValue()));
-		add(new Dynamic.DynamicBoolean("player.inVillage", () -> EnvironState.inVillage()));
-		add(new Dynamic.DynamicNumber("player.X", () -> (float) EnvironState.getPlayerPosition().getX()));
-		add(new Dynamic.DynamicNumber("player.Y", () -> (float) EnvironState.getPlayerPosition().getY()));
-		add(new Dynamic.DynamicNumber("player.Z", () -> (float) EnvironState.getPlayerPosition().getZ()));
-		add(new Dynamic.DynamicNumber("player.lightLevel", () -> (float) EnvironState.getLightLevel()));
+		add(new LazyVariant.LazyBoolean("player.isHurt", () -> EnvironState.isPlayerHurt()));
+		add(new LazyVariant.LazyBoolean("player.isHungry", () -> EnvironState.isPlayerHungry()));
+		add(new LazyVariant.LazyBoolean("player.isBurning", () -> EnvironState.isPlayerBurning()));
+		add(new LazyVariant.LazyBoolean("player.isSuffocating", () -> EnvironState.isPlayerSuffocating()));
+		add(new LazyVariant.LazyBoolean("player.isFlying", () -> EnvironState.isPlayerFlying()));
+		add(new LazyVariant.LazyBoolean("player.isSprinting", () -> EnvironState.isPlayerSprinting()));
+		add(new LazyVariant.LazyBoolean("player.isInLava", () -> EnvironState.isPlayerInLava()));
+		add(new LazyVariant.LazyBoolean("player.isInvisible", () -> EnvironState.isPlayerInvisible()));
+		add(new LazyVariant.LazyBoolean("player.isBlind", () -> EnvironState.isPlayerBlind()));
+		add(new LazyVariant.LazyBoolean("player.isInWater", () -> EnvironState.isPlayerInWater()));
+		add(new LazyVariant.LazyBoolean("player.isMoving", () -> EnvironState.isPlayerMoving()));
+		add(new LazyVariant.LazyBoolean("player.isInside", () -> EnvironState.isPlayerInside()));
+		add(new LazyVariant.LazyBoolean("player.isUnderground", () -> EnvironState.isPlayerUnderground()));
+		add(new LazyVariant.LazyBoolean("player.isInSpace", () -> EnvironState.isPlayerInSpace()));
+		add(new LazyVariant.LazyBoolean("player.isInClouds", () -> EnvironState.isPlayerInClouds()));
+		add(new LazyVariant.LazyString("player.temperature", () -> EnvironState.getPlayerTemperature().getValue()));
+		add(new LazyVariant.LazyBoolean("player.inVillage", () -> EnvironState.inVillage()));
+		add(new LazyVariant.LazyNumber("player.X", () -> (float) EnvironState.getPlayerPosition().getX()));
+		add(new LazyVariant.LazyNumber("player.Y", () -> (float) EnvironState.getPlayerPosition().getY()));
+		add(new LazyVariant.LazyNumber("player.Z", () -> (float) EnvironState.getPlayerPosition().getZ()));
+		add(new LazyVariant.LazyNumber("player.lightLevel", () -> (float) EnvironState.getLightLevel()));
 
-		add(new Dynamic.DynamicBoolean("player.isDead", () -> {
+		add(new LazyVariant.LazyBoolean("player.isDead", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.isDead;
 		}));
-		add(new Dynamic.DynamicBoolean("player.isWet", () -> {
+		add(new LazyVariant.LazyBoolean("player.isWet", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.isWet();
 		}));
-		add(new Dynamic.DynamicBoolean("player.isUnderwater", () -> {
+		add(new LazyVariant.LazyBoolean("player.isUnderwater", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.isInsideOfMaterial(Material.WATER);
 		}));
-		add(new Dynamic.DynamicBoolean("player.isRiding", () -> {
+		add(new LazyVariant.LazyBoolean("player.isRiding", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.isRiding();
 		}));
-		add(new Dynamic.DynamicBoolean("player.isOnGround", () -> {
+		add(new LazyVariant.LazyBoolean("player.isOnGround", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.onGround;
 		}));
-		add(new Dynamic.DynamicNumber("player.health", () -> {
+		add(new LazyVariant.LazyNumber("player.health", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null ? player.getHealth() : Integer.MAX_VALUE;
 		}));
-		add(new Dynamic.DynamicNumber("player.maxHealth", () -> {
+		add(new LazyVariant.LazyNumber("player.maxHealth", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null ? player.getMaxHealth() : Integer.MAX_VALUE;
 		}));
-		add(new Dynamic.DynamicNumber("player.luck", () -> {
+		add(new LazyVariant.LazyNumber("player.luck", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null ? player.getLuck() : 0;
 		}));
-		add(new Dynamic.DynamicNumber("player.food.saturation", () -> {
+		add(new LazyVariant.LazyNumber("player.food.saturation", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null ? player.getFoodStats().getSaturationLevel() : 0;
 		}));
-		add(new Dynamic.DynamicNumber("player.food.level", () -> {
+		add(new LazyVariant.LazyNumber("player.food.level", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null ? (float) player.getFoodStats().getFoodLevel() : 0;
 		}));
 
-		add(new Dynamic.DynamicBoolean("player.canRainOn", () -> {
+		add(new LazyVariant.LazyBoolean("player.canRainOn", () -> {
 			final World world = EnvironState.getWorld();
 			if (world != null) {
 				final BlockPos pos = EnvironState.getPlayerPosition().add(0, 2, 0);
@@ -106,7 +105,7 @@ public class PlayerVariables extends DynamicVariantList {
 			}
 			return false;
 		}));
-		add(new Dynamic.DynamicBoolean("player.canSeeSky", () -> {
+		add(new LazyVariant.LazyBoolean("player.canSeeSky", () -> {
 			final World world = EnvironState.getWorld();
 			if (world != null) {
 				final BlockPos pos = EnvironState.getPlayerPosition().add(0, 2, 0);
@@ -114,7 +113,7 @@ public class PlayerVariables extends DynamicVariantList {
 			}
 			return false;
 		}));
-		add(new Dynamic.DynamicBoolean("player.inBoat", () -> {
+		add(new LazyVariant.LazyBoolean("player.inBoat", () -> {
 			final EntityPlayer player = EnvironState.getPlayer();
 			return player != null && player.getRidingEntity() instanceof EntityBoat;
 		}));
@@ -24,7 +24,6 @@ package org.orecruncher.dsurround.expression;
 
 import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 import net.minecraft.world.World;
@@ -32,15 +31,15 @@ import net.minecraft.world.World;
 public class SeasonVariables extends DynamicVariantList {
 
 	public SeasonVariables() {
-		add(new Dynamic.DynamicString("season.season", () -> {
+		add(new LazyVariant.LazyString("season.season", () -> {
 			final World world = EnvironState.getWorld();
 			return CapabilitySeasonInfo.getCapability(world).getSeasonString();
 		}));
-		add(new Dynamic.DynamicString("season.type", () -> {
+		add(new LazyVariant.LazyString("season.type", () -> {
 			final World world = EnvironState.getWorld();
 			return CapabilitySeasonInfo.getCapability(world).getSeasonType().getValue();
 		}));
-		add(new Dynamic.DynamicString("season.subtype", () -> {
+		add(new LazyVariant.LazyString("season.subtype", () -> {
 			final World world = EnvironState.getWorld();
 			return CapabilitySeasonInfo.getCapability(world).getSeasonSubType().getValue();
 		}));
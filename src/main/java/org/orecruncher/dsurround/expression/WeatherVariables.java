@@ -26,7 +26,6 @@ import org.orecruncher.dsurround.capabilities.CapabilitySeasonInfo;
 import org.orecruncher.dsurround.capabilities.season.ISeasonInfo;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
 import org.orecruncher.dsurround.client.weather.Weather;
-import org.orecruncher.lib.expression.Dynamic;
 import org.orecruncher.lib.expression.DynamicVariantList;
 
 import net.minecraft.world.World;
@@ -34,18 +33,18 @@ import net.minecraft.world.World;
 public class WeatherVariables extends DynamicVariantList {
 
 	public WeatherVariables() {
-		add(new Dynamic.DynamicBoolean("weather.isRaining", () -> Weather.isRaining()));
-		add(new Dynamic.DynamicBoolean("weather.isThundering", () -> Weather.isThundering()));
-		add(new Dynamic.DynamicString("weather.temperature", () -> EnvironState.getBiomeTemperature().getValue()));
-		add(new Dynamic.DynamicBoolean("weather.isNotRaining", () -> !Weather.isRaining()));
-		add(new Dynamic.DynamicBoolean("weather.isNotThundering", () -> !Weather.isThundering()));
-		add(new Dynamic.DynamicNumber("weather.rainfall", () -> (float) Weather.getIntensityLevel()));
-		add(new Dynamic.DynamicNumber("weather.temperatureValue", () -> {
+		add(new LazyVariant.LazyBoolean("weather.isRaining", () -> Weather.isRaining()));
+		add(new LazyVariant.LazyBoolean("weather.isThundering", () -> Weather.isThundering()));
+		add(new LazyVariant.LazyString("weather.temperature", () -> EnvironState.getBiomeTemperature().getValue()));
+		add(new LazyVariant.LazyBoolean("weather.isNotRaining", () -> !Weather.isRaining()));
+		add(new LazyVariant.LazyBoolean("weather.isNotThundering", () -> !Weather.isThundering()));
+		add(new LazyVariant.LazyNumber("weather.rainfall", () -> (float) Weather.getIntensityLevel()));
+		add(new LazyVariant.LazyNumber("weather.temperatureValue", () -> {
 			final World world = EnvironState.getWorld();
 			final ISeasonInfo season = CapabilitySeasonInfo.getCapability(world);
 			return season.getTemperature(EnvironState.getPlayerPosition());
 		}));
-		add(new Dynamic.DynamicBoolean("weather.canWaterFreeze", () -> {
+		add(new LazyVariant.LazyBoolean("weather.canWaterFreeze", () -> {
 			final World world = EnvironState.getWorld();
 			final ISeasonInfo season = CapabilitySeasonInfo.getCapability(world);
 			return season.canWaterFreeze(EnvironState.getPlayerPosition());
@@ -0,0 +1,91 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher, Abastro
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.WeightTable;
+import org.orecruncher.lib.WeightTable.IEntrySource;
+
+/**
+ * Weighted selection over a fixed set of entries where only those that match
+ * are candidates. Used for block and biome sounds, where matching is the
+ * sound's condition. The filtered WeightTable is retained between calls and
+ * rebuilt only when the set of matching entries changes, avoiding the garbage
+ * of building a new table on every selection.
+ */
+public final class FilteredWeightTable<T> {
+
+	private final IEntrySource<T>[] entries;
+	private WeightTable<T> table;
+	private long matchMask;
+
+	public FilteredWeightTable(@Nonnull final IEntrySource<T>[] entries) {
+		this.entries = entries;
+	}
+
+	@Nullable
+	public T next() {
+		// Matches are tracked in a long. If there are more entries than bits do
+		// it the hard way.
+		if (this.entries.length > Long.SIZE) {
+			final WeightTable<T> t = new WeightTable<>();
+			int matched = 0;
+			for (final IEntrySource<T> e : this.entries)
+				if (e.matches()) {
+					t.add(e.getEntry());
+					matched++;
+				}
+			return matched == 0 ? null : t.next();
+		}
+
+		long mask = 0;
+		for (int i = 0; i < this.entries.length; i++)
+			if (this.entries[i].matches())
+				mask |= 1L << i;
+
+		if (mask == 0)
+			return null;
+
+		if (this.table == null || mask != this.matchMask) {
+			this.table = new WeightTable<>();
+			for (int i = 0; i < this.entries.length; i++)
+				if ((mask & (1L << i)) != 0)
+					this.table.add(this.entries[i].getEntry());
+			this.matchMask = mask;
+		}
+
+		return this.table.next();
+	}
+
+	/**
+	 * The filtered table built by the last selection. Null if nothing has been
+	 * selected yet or there are too many entries to track.
+	 */
+	@Nullable
+	WeightTable<T> getTable() {
+		return this.table;
+	}
+}
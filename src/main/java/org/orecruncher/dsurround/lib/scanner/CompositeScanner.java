@@ -0,0 +1,87 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+import org.orecruncher.lib.collections.ObjectArray;
+
+import net.minecraft.util.ITickable;
+import net.minecraft.world.World;
+
+/**
+ * Ticks a group of scanners that work the same area so that they share block
+ * reads. The chunk section lookups are done once for the group, so a read by
+ * any scanner during the tick is a direct section access. Each scanner still
+ * applies its own interestingBlock() filter and position selection.
+ */
+public class CompositeScanner implements ITickable {
+
+	protected final ScanLocus locus;
+	protected final ObjectArray<Scanner> scanners = new ObjectArray<>(4);
+	private final SharedBlockReader reader = new SharedBlockReader();
+
+	public CompositeScanner(@Nonnull final ScanLocus locus) {
+		this.locus = locus;
+	}
+
+	public CompositeScanner add(@Nonnull final Scanner scanner) {
+		this.scanners.add(scanner);
+		return this;
+	}
+
+	/**
+	 * Number of positions read during the last update
+	 */
+	public int getReads() {
+		return this.reader.getReads();
+	}
+
+	@Override
+	public void update() {
+		final IBlockAccessEx provider = this.locus.getWorld();
+		final World world = provider.getWorld();
+		if (world == null) {
+			for (int i = 0; i < this.scanners.size(); i++)
+				this.scanners.get(i).update();
+			return;
+		}
+
+		this.reader.begin(provider, world);
+		try {
+			for (int i = 0; i < this.scanners.size(); i++) {
+				final Scanner scanner = this.scanners.get(i);
+				scanner.reader = this.reader;
+				try {
+					scanner.update();
+				} finally {
+					scanner.reader = null;
+				}
+			}
+		} finally {
+			this.reader.end();
+		}
+	}
+}
@@ -23,16 +23,27 @@
 
 package org.orecruncher.dsurround.lib.scanner;
 
+import java.util.BitSet;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.orecruncher.dsurround.event.BlockRangeUpdateEvent;
 import org.orecruncher.dsurround.event.BlockUpdateEvent;
+import org.orecruncher.dsurround.registry.RegistryDataEvent;
 import org.orecruncher.lib.chunk.IBlockAccessEx;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
 /**
@@ -40,15 +51,39 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
  */
 public abstract class CuboidScanner extends Scanner {
 
+	// Chunks beyond the scan range for which the section index is retained
+	private static final int INDEX_MARGIN = 8;
+
 	// Iteration variables
 	protected boolean scanFinished = false;
 	protected Cuboid activeCuboid;
-	protected CuboidPointIterator fullRange;
+	protected CuboidSectionIterator fullRange;
 
 	// State of last tick
 	protected BlockPos lastPos;
 	protected int lastReference = 0;
 
+	// Whether full scans run on the worker thread, and the pass that is in
+	// flight if any
+	protected boolean async = false;
+	private Future<ScanPass> pendingPass;
+
+	// Completed pass whose results are being handed to blockScan() a budget's
+	// worth at a time, and how many have been handed off so far
+	private ScanPass draining;
+	private int drained;
+
+	// Result of interestingBlock() for every registered state, indexed by state
+	// ID. Built on the client thread and handed to the worker so that a pass
+	// never calls into interestingBlock() itself. Dropped on a registry reload.
+	private BitSet interest;
+
+	// Record of interesting positions by section so that regions scanned
+	// previously can be replayed, and the sections replayed for the current
+	// full scan.
+	private final SectionIndex index = new SectionIndex();
+	private LongOpenHashSet replayed = new LongOpenHashSet();
+
 	protected CuboidScanner(@Nonnull final ScanLocus locus, @Nonnull final String name, final int range,
 			final int blocksPerTick) {
 		super(locus, name, range, blocksPerTick);
@@ -58,6 +93,17 @@ public abstract class CuboidScanner extends Scanner {
 		return this.scanFinished;
 	}
 
+	/**
+	 * Enables running the full volume scan on a worker thread against a snapshot
+	 * of the chunk sections within range. The worker does not call
+	 * interestingBlock(); it consults a table of its results for every registered
+	 * state that is built on the thread calling update(). Results are handed to
+	 * blockScan() on the thread calling update().
+	 */
+	public void setAsync(final boolean flag) {
+		this.async = flag;
+	}
+
 	protected BlockPos[] getMinMaxPointsForVolume(@Nonnull final BlockPos pos) {
 		BlockPos min = pos.add(-this.xRange, -this.yRange, -this.zRange);
 		final BlockPos max = pos.add(this.xRange, this.yRange, this.zRange);
@@ -74,13 +120,59 @@ public abstract class CuboidScanner extends Scanner {
 	}
 
 	protected void resetFullScan() {
+		this.pendingPass = null;
+		this.draining = null;
+		this.index.abandon();
+		if (this.locus.getReference() != this.lastReference)
+			this.index.clear();
+
 		this.lastPos = this.locus.getCenter();
 		this.lastReference = this.locus.getReference();
 		this.scanFinished = false;
 
 		final BlockPos[] points = getMinMaxPointsForVolume(this.lastPos);
 		this.activeCuboid = new Cuboid(points);
-		this.fullRange = new CuboidPointIterator(points);
+
+		this.index.prune(this.lastPos.getX() >> 4, this.lastPos.getZ() >> 4,
+				(Math.max(this.xRange, this.zRange) >> 4) + INDEX_MARGIN);
+		final LongOpenHashSet skip = this.replayed = replayIndex(points[0], points[1]);
+		this.fullRange = new CuboidSectionIterator(points,
+				(cx, sy, cz) -> skip.contains(SectionIndex.key(cx, sy, cz)) || skipLiveSection(cx, sy, cz));
+	}
+
+	/**
+	 * Replays the sections fully within the volume that are in the index, and
+	 * starts recording the ones that are not. Returns the keys of the sections
+	 * that were replayed so the scan can skip them.
+	 */
+	@Nonnull
+	private LongOpenHashSet replayIndex(@Nonnull final BlockPos min, @Nonnull final BlockPos max) {
+		final LongOpenHashSet result = new LongOpenHashSet();
+		final int minY = Math.max(min.getY(), 0);
+		final int maxY = Math.min(max.getY(), 255);
+		for (int cx = (min.getX() + 15) >> 4; (cx << 4) + 15 <= max.getX(); cx++)
+			for (int cz = (min.getZ() + 15) >> 4; (cz << 4) + 15 <= max.getZ(); cz++)
+				for (int sy = (minY + 15) >> 4; (sy << 4) + 15 <= maxY; sy++) {
+					final long key = SectionIndex.key(cx, sy, cz);
+					final long[] bits = this.index.get(key);
+					if (bits == null) {
+						this.index.startRecording(key);
+					} else {
+						result.add(key);
+						SectionIndex.forEach(bits, cx, sy, cz, this::replay);
+					}
+				}
+		return result;
+	}
+
+	private void replay(final int x, final int y, final int z) {
+		// Same as a scan, y 0 is not in valid space
+		if (y > 0) {
+			final BlockPos pos = this.workingPos.setPos(x, y, z);
+			final IBlockState state = getBlockState(pos);
+			if (interestingBlock(state))
+				blockScan(state, pos, this.random);
+		}
 	}
 
 	@Override
@@ -90,18 +182,21 @@ public abstract class CuboidScanner extends Scanner {
 		final BlockPos playerPos = this.locus.getCenter();
 		if (playerPos == null || playerPos.getY() < 0) {
 			this.fullRange = null;
+			this.pendingPass = null;
+			this.draining = null;
+			this.index.abandon();
 		} else {
 			// If the full range was reset, or the player dimension changed,
 			// dump
 			// everything and restart.
 			if (this.fullRange == null || this.locus.getReference() != this.lastReference) {
 				resetFullScan();
-				super.update();
+				scan();
 			} else if (this.lastPos.equals(playerPos)) {
 				// The player didn't move. If a scan is in progress
 				// continue.
 				if (!this.scanFinished)
-					super.update();
+					scan();
 			} else {
 				// The player moved.
 				final Cuboid oldVolume = this.activeCuboid != null ? this.activeCuboid : getVolumeFor(this.lastPos);
@@ -114,7 +209,7 @@ public abstract class CuboidScanner extends Scanner {
 				// change to the scan area dump and restart.
 				if (intersect == null || oldVolume.volume() < (oldVolume.volume() - intersect.volume()) * 2) {
 					resetFullScan();
-					super.update();
+					scan();
 				} else {
 
 					// Looks to be a small update, like a player walking around.
@@ -129,22 +224,183 @@ public abstract class CuboidScanner extends Scanner {
 						// old volume and once that is locked then an
 						// subsequent tick will do a delta update to get
 						// the new blocks.
-						super.update();
+						scan();
 					}
 				}
 			}
 		}
 	}
 
-	protected void updateScan(@Nonnull final Cuboid newVolume, @Nonnull final Cuboid intersect) {
+	private void scan() {
+		if (this.async)
+			scanAsync();
+		else
+			super.update();
 
-		final IBlockAccessEx provider = this.locus.getWorld();
+		if (this.scanFinished)
+			this.index.commit();
+	}
+
+	@Override
+	protected void process(@Nonnull final IBlockState state, @Nonnull final BlockPos pos) {
+		this.index.record(pos);
+		super.process(state, pos);
+	}
+
+	private void scanAsync() {
+		if (this.draining != null) {
+			drain();
+			return;
+		}
+
+		if (this.pendingPass == null) {
+			if (this.scanFinished)
+				return;
+			// Kick off a pass that picks up where the iterator left off. The
+			// iterator is not touched on this thread until the pass completes.
+			final IBlockAccessEx provider = this.locus.getWorld();
+			final World world = provider.getWorld();
+			final WorldSnapshot snapshot = world != null
+					? WorldSnapshot.capture(world, this.activeCuboid.minimum(), this.activeCuboid.maximum())
+					: WorldSnapshot.capture(provider, this.activeCuboid.minimum(), this.activeCuboid.maximum());
+			final CuboidSectionIterator itr = this.fullRange;
+			final LongOpenHashSet skip = this.replayed;
+			final BitSet interest = getInterest();
+			itr.setFilter((cx, sy, cz) -> {
+				if (skip.contains(SectionIndex.key(cx, sy, cz)))
+					return true;
+				final SectionSnapshot section = snapshot.getSection(cx, sy, cz);
+				return section != null && !section.mayContain(state -> isInteresting(interest, state));
+			});
+			this.pendingPass = ScanExecutor.submit(() -> classify(snapshot, itr, interest));
+			return;
+		}
+
+		if (!this.pendingPass.isDone())
+			return;
+
+		final ScanPass pass;
+		try {
+			pass = this.pendingPass.get();
+		} catch (@Nonnull final InterruptedException | ExecutionException ex) {
+			this.log.error("Async scan failed; reverting to synchronous scan", ex);
+			this.pendingPass = null;
+			this.fullRange = null;
+			this.async = false;
+			return;
+		}
+
+		this.pendingPass = null;
+		this.draining = pass;
+		this.drained = 0;
+		drain();
+	}
+
+	/**
+	 * Hands the results of the completed pass to process(). The snapshot may be
+	 * several ticks old by the time a position is handed off, so the state is
+	 * read again from the world and positions that are no longer interesting are
+	 * dropped. The per tick budget limits the number of results handled in a
+	 * tick, and when adaptive the time taken is used to size the budget the same
+	 * as a synchronous scan.
+	 */
+	private void drain() {
+		final ScanPass pass = this.draining;
+		final long start = isBudgetAdaptive() ? System.nanoTime() : 0;
+		final int end = Math.min(pass.positions.size(), this.drained + this.blocksPerTick);
+		final BitSet interest = getInterest();
+
+		preScan();
+		for (int i = this.drained; i < end; i++) {
+			final BlockPos pos = BlockPos.fromLong(pass.positions.getLong(i));
+			final IBlockState state = getBlockState(pos);
+			if (isInteresting(interest, state))
+				process(state, pos);
+		}
+		postScan();
+
+		if (isBudgetAdaptive())
+			adjustBudget(System.nanoTime() - start, end - this.drained);
+		this.drained = end;
+
+		if (end == pass.positions.size()) {
+			this.draining = null;
+			// If the pass stopped on a chunk that was not loaded the next tick will
+			// start another pass from that point.
+			this.scanFinished = pass.finished;
+		}
+	}
+
+	/**
+	 * Evaluates interestingBlock() for every registered state. Called on the
+	 * thread calling update().
+	 */
+	@Nonnull
+	private BitSet getInterest() {
+		if (this.interest == null) {
+			final BitSet bits = new BitSet(Block.BLOCK_STATE_IDS.size());
+			for (final IBlockState state : Block.BLOCK_STATE_IDS) {
+				if (interestingBlock(state))
+					bits.set(Block.BLOCK_STATE_IDS.get(state));
+			}
+			this.interest = bits;
+		}
+		return this.interest;
+	}
+
+	private static boolean isInteresting(@Nonnull final BitSet interest, @Nonnull final IBlockState state) {
+		final int id = Block.BLOCK_STATE_IDS.get(state);
+		return id >= 0 && interest.get(id);
+	}
+
+	/**
+	 * Walks the remaining points of the iterator against the snapshot collecting
+	 * the interesting blocks. Runs on the worker thread and only reads the
+	 * snapshot and the interest table. Mirrors nextPos(): the pass stops at the
+	 * first point whose chunk is not available.
+	 */
+	@Nonnull
+	private ScanPass classify(@Nonnull final WorldSnapshot snapshot, @Nonnull final CuboidSectionIterator itr,
+			@Nonnull final BitSet interest) {
+		final ScanPass pass = new ScanPass();
+		BlockPos point;
+		while ((point = itr.peek()) != null) {
+			if (!snapshot.isAvailable(point))
+				return pass;
+			itr.next();
+			if (point.getY() > 0) {
+				final IBlockState state = snapshot.getBlockState(point);
+				if (isInteresting(interest, state))
+					pass.positions.add(point.toLong());
+			}
+		}
+		pass.finished = true;
+		return pass;
+	}
+
+	/**
+	 * Sections whose palette does not contain a state of interest are skipped
+	 * during a full scan. Chunks that are not loaded are not skipped so that the
+	 * scan waits for them to become available. Block access without a backing
+	 * World, such as a synthetic one, is not skipped.
+	 */
+	private boolean skipLiveSection(final int cx, final int sy, final int cz) {
+		final World world = this.locus.getWorld().getWorld();
+		if (world == null)
+			return false;
+		final Chunk chunk = world.getChunkProvider().getLoadedChunk(cx, cz);
+		if (chunk == null || chunk.isEmpty())
+			return false;
+		return !SectionSnapshot.mayContain(chunk.getBlockStorageArray()[sy], this::interestingBlock);
+	}
+
+	protected void updateScan(@Nonnull final Cuboid newVolume, @Nonnull final Cuboid intersect) {
 
 		// Notify on blocks coming into range
 		final ComplementsPointIterator newInRange = new ComplementsPointIterator(newVolume, intersect);
 		for (BlockPos point = newInRange.next(); point != null; point = newInRange.next()) {
 			if (point.getY() > 0) {
-				final IBlockState state = provider.getBlockState(point);
+				final IBlockState state = getBlockState(point);
 				if (interestingBlock(state))
 					blockScan(state, point, this.random);
 			}
@@ -206,6 +462,8 @@ public abstract class CuboidScanner extends Scanner {
 	@SubscribeEvent()
 	public void onBlockUpdate(@Nonnull final BlockUpdateEvent event) {
 		try {
+			if (event.world == this.locus.getWorld().getWorld())
+				this.index.update(event.pos, interestingBlock(event.newState));
 			if (isInteresting(event)) {
 				blockScan(event.newState, event.pos, this.random);
 			}
@@ -214,4 +472,45 @@ public abstract class CuboidScanner extends Scanner {
 		}
 	}
 
-}
\ No newline at end of file
+	@SubscribeEvent()
+	public void onBlockRangeUpdate(@Nonnull final BlockRangeUpdateEvent event) {
+		if (event.world == this.locus.getWorld().getWorld())
+			this.index.invalidate(event.x1, event.y1, event.z1, event.x2, event.y2, event.z2);
+	}
+
+	/**
+	 * Block state data may have changed. Any pass in flight was classified
+	 * against the old data so it is dropped and the scan starts over. The section
+	 * index is cleared as well since blocks that were not interesting before may
+	 * be now, and a replayed mask would never find them.
+	 */
+	@SubscribeEvent()
+	public void onRegistryReload(@Nonnull final RegistryDataEvent.Reload event) {
+		this.interest = null;
+		this.pendingPass = null;
+		this.draining = null;
+		this.fullRange = null;
+		this.index.clear();
+	}
+
+	@SubscribeEvent()
+	public void onChunkLoad(@Nonnull final ChunkEvent.Load event) {
+		if (event.getWorld().isRemote)
+			this.index.invalidateColumn(event.getChunk().x, event.getChunk().z);
+	}
+
+	@SubscribeEvent()
+	public void onChunkUnload(@Nonnull final ChunkEvent.Unload event) {
+		if (event.getWorld().isRemote)
+			this.index.invalidateColumn(event.getChunk().x, event.getChunk().z);
+	}
+
+	/**
+	 * Positions a pass found interesting in the snapshot.
+	 */
+	private static final class ScanPass {
+		public final LongArrayList positions = new LongArrayList();
+		public boolean finished;
+	}
+
+}
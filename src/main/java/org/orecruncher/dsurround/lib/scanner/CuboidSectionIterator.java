@@ -0,0 +1,184 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+/**
+ * Iterates the points of a cuboid one chunk section at a time. Before entering
+ * a section the filter is consulted and, if it reports that nothing of
+ * interest can be in the section, the entire section is skipped without
+ * visiting its points. Points above world height are not produced.
+ *
+ * Implements a "peeking" iterator. The position returned by next() remains
+ * valid until the following call to next().
+ */
+public class CuboidSectionIterator implements IPointIterator {
+
+	/**
+	 * Decides whether a section can be skipped. Coordinates are in chunk/section
+	 * space.
+	 */
+	@FunctionalInterface
+	public interface ISectionFilter {
+		boolean skip(final int cx, final int sy, final int cz);
+	}
+
+	public static final ISectionFilter NO_FILTER = (cx, sy, cz) -> false;
+
+	private final BlockPos min;
+	private final BlockPos max;
+	private final int minCX;
+	private final int minSY;
+	private final int minCZ;
+	private final int maxCX;
+	private final int maxSY;
+	private final int maxCZ;
+
+	private ISectionFilter filter;
+
+	// Current section and the bounds of the cuboid within it
+	private int cx;
+	private int sy;
+	private int cz;
+	private int x0, x1, y0, y1, z0, z1;
+	private int x, y, z;
+	private boolean done;
+
+	// Two buffers so the point returned by next() is not disturbed by the peek
+	private final MutableBlockPos[] buffers = { new MutableBlockPos(), new MutableBlockPos() };
+	private int active;
+	private BlockPos peeked;
+
+	public CuboidSectionIterator(@Nonnull final BlockPos[] points, @Nonnull final ISectionFilter filter) {
+		this(points[0], points[1], filter);
+	}
+
+	public CuboidSectionIterator(@Nonnull final BlockPos p1, @Nonnull final BlockPos p2,
+			@Nonnull final ISectionFilter filter) {
+		this.filter = filter;
+		this.min = new BlockPos(Math.min(p1.getX(), p2.getX()), Math.max(Math.min(p1.getY(), p2.getY()), 0),
+				Math.min(p1.getZ(), p2.getZ()));
+		this.max = new BlockPos(Math.max(p1.getX(), p2.getX()), Math.min(Math.max(p1.getY(), p2.getY()), 255),
+				Math.max(p1.getZ(), p2.getZ()));
+		this.minCX = this.min.getX() >> 4;
+		this.minSY = this.min.getY() >> 4;
+		this.minCZ = this.min.getZ() >> 4;
+		this.maxCX = this.max.getX() >> 4;
+		this.maxSY = this.max.getY() >> 4;
+		this.maxCZ = this.max.getZ() >> 4;
+
+		this.cx = this.minCX;
+		this.cz = this.minCZ;
+		this.sy = this.minSY - 1;
+		this.done = this.min.getY() > this.max.getY();
+		this.peeked = this.done ? null : first();
+	}
+
+	/**
+	 * Sets the filter that is consulted for sections not yet entered. The section
+	 * currently being iterated is not affected.
+	 */
+	public void setFilter(@Nonnull final ISectionFilter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	@Nullable
+	public BlockPos peek() {
+		return this.peeked;
+	}
+
+	@Override
+	@Nullable
+	public BlockPos next() {
+		final BlockPos result = this.peeked;
+		if (result != null)
+			this.peeked = advance();
+		return result;
+	}
+
+	@Nullable
+	private BlockPos first() {
+		return enterSection() ? emit() : null;
+	}
+
+	@Nullable
+	private BlockPos advance() {
+		if (++this.x > this.x1) {
+			this.x = this.x0;
+			if (++this.z > this.z1) {
+				this.z = this.z0;
+				if (++this.y > this.y1) {
+					if (!enterSection())
+						return null;
+				}
+			}
+		}
+		return emit();
+	}
+
+	@Nonnull
+	private BlockPos emit() {
+		this.active ^= 1;
+		return this.buffers[this.active].setPos(this.x, this.y, this.z);
+	}
+
+	// Moves to the next section that the filter does not skip. Sections of a
+	// chunk column are visited together, bottom to top.
+	private boolean enterSection() {
+		while (!this.done) {
+			if (++this.sy > this.maxSY) {
+				this.sy = this.minSY;
+				if (++this.cz > this.maxCZ) {
+					this.cz = this.minCZ;
+					if (++this.cx > this.maxCX) {
+						this.done = true;
+						break;
+					}
+				}
+			}
+
+			if (this.filter.skip(this.cx, this.sy, this.cz))
+				continue;
+
+			this.x0 = Math.max(this.cx << 4, this.min.getX());
+			this.x1 = Math.min((this.cx << 4) + 15, this.max.getX());
+			this.y0 = Math.max(this.sy << 4, this.min.getY());
+			this.y1 = Math.min((this.sy << 4) + 15, this.max.getY());
+			this.z0 = Math.max(this.cz << 4, this.min.getZ());
+			this.z1 = Math.min((this.cz << 4) + 15, this.max.getZ());
+			this.x = this.x0;
+			this.y = this.y0;
+			this.z = this.z0;
+			return true;
+		}
+		return false;
+	}
+}
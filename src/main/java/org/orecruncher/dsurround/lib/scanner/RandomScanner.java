@@ -30,6 +30,7 @@ import javax.annotation.Nonnull;
 import org.orecruncher.lib.random.LCGRandom;
 
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 
 /**
  * Serves up random blocks in an area around the player. Concentration of block
@@ -37,8 +38,31 @@ import net.minecraft.util.math.BlockPos;
  */
 public abstract class RandomScanner extends Scanner {
 
+	/**
+	 * How positions are selected. RANDOM draws each coordinate independently.
+	 * LOW_DISCREPANCY walks an additive recurrence (R3) sequence that fills the
+	 * unit cube evenly and continues from tick to tick, so samples do not cluster
+	 * or repeat. Both are mapped through the same triangular distribution around
+	 * the player.
+	 */
+	public enum Sampling {
+		RANDOM, LOW_DISCREPANCY
+	}
+
+	// Reciprocal powers of the plastic number generalization for 3 dimensions,
+	// the unique positive root of x^4 = x + 1.
+	private static final double PHI3 = 1.2207440846057596D;
+	private static final double A1 = 1D / PHI3;
+	private static final double A2 = 1D / (PHI3 * PHI3);
+	private static final double A3 = 1D / (PHI3 * PHI3 * PHI3);
+
 	private final LCGRandom lcg = new LCGRandom();
 
+	private Sampling sampling = Sampling.RANDOM;
+	private double seqX;
+	private double seqY;
+	private double seqZ;
+
 	private int playerX;
 	private int playerY;
 	private int playerZ;
@@ -52,10 +76,35 @@ public abstract class RandomScanner extends Scanner {
 		super(locus, name, range, blocksPerTick);
 	}
 
+	/**
+	 * Sets the sampling mode. The low discrepancy sequence starts from a random
+	 * offset so that multiple scanners do not probe in lockstep.
+	 */
+	public void setSampling(@Nonnull final Sampling sampling) {
+		this.sampling = sampling;
+		this.seqX = this.random.nextDouble();
+		this.seqY = this.random.nextDouble();
+		this.seqZ = this.random.nextDouble();
+	}
+
 	private int randomRange(final int range) {
 		return this.lcg.nextInt(range) - this.lcg.nextInt(range);
 	}
 
+	/**
+	 * Maps a uniform value in [0, 1) to the same triangular distribution
+	 * randomRange() produces, using the inverse of its (continuous) CDF.
+	 */
+	private static int triangularRange(final double u, final int range) {
+		final double t = u < 0.5D ? range * (Math.sqrt(2D * u) - 1D) : range * (1D - Math.sqrt(2D * (1D - u)));
+		return MathHelper.clamp((int) Math.floor(t + 0.5D), 1 - range, range - 1);
+	}
+
+	private static double advance(final double value, final double alpha) {
+		final double result = value + alpha;
+		return result >= 1D ? result - 1D : result;
+	}
+
 	@Override
 	public void preScan() {
 		final BlockPos pos = this.locus.getCenter();
@@ -67,6 +116,14 @@ public abstract class RandomScanner extends Scanner {
 	@Override
 	@Nonnull
 	protected BlockPos nextPos(@Nonnull final BlockPos.MutableBlockPos workingPos, @Nonnull final Random rand) {
+		if (this.sampling == Sampling.LOW_DISCREPANCY) {
+			this.seqX = advance(this.seqX, A1);
+			this.seqY = advance(this.seqY, A2);
+			this.seqZ = advance(this.seqZ, A3);
+			return workingPos.setPos(this.playerX + triangularRange(this.seqX, this.xRange),
+					this.playerY + triangularRange(this.seqY, this.yRange),
+					this.playerZ + triangularRange(this.seqZ, this.zRange));
+		}
 		return workingPos.setPos(this.playerX + randomRange(this.xRange), this.playerY + randomRange(this.yRange),
 				this.playerZ + randomRange(this.zRange));
 	}
@@ -29,7 +29,6 @@ import java.util.concurrent.Callable;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import org.orecruncher.lib.chunk.IBlockAccessEx;
 import org.orecruncher.lib.logging.ModLog;
 import org.orecruncher.lib.random.XorShiftRandom;
 
@@ -37,11 +36,17 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 
 public abstract class Scanner implements ITickable, Callable<Void> {
 
 	private final static int MAX_BLOCKS_TICK = 3000;
 
+	// Minimum number of blocks processed in a tick for the timing to be used to
+	// adjust the budget, and the weight given to a new measurement.
+	private final static int MIN_BUDGET_SAMPLE = 32;
+	private final static double BUDGET_SMOOTHING = 0.25D;
+
 	protected final String name;
 
 	protected final int xRange;
@@ -51,9 +56,15 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 	protected final int xSize;
 	protected final int ySize;
 	protected final int zSize;
-	protected final int blocksPerTick;
+	protected int blocksPerTick;
 	protected final int volume;
 
+	// Adaptive budget. Disabled if the target is 0.
+	private long targetNanos;
+	private int minBlocksPerTick;
+	private int maxBlocksPerTick;
+	private double nanosPerBlock;
+
 	protected final ScanLocus locus;
 
 	protected final Random random = new XorShiftRandom();
@@ -61,6 +72,9 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 
 	protected ModLog log;
 
+	// Set while the scanner is being ticked by a CompositeScanner
+	SharedBlockReader reader;
+
 	public Scanner(@Nonnull final ScanLocus locus, @Nonnull final String name, final int range) {
 		this(locus, name, range, 0);
 	}
@@ -99,6 +113,33 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 		this.log = log;
 	}
 
+	/**
+	 * Enables adjusting the per tick block budget based on the measured cost of
+	 * processing a block. The budget is sized so that an update takes about the
+	 * target time, and is kept within the bounds provided. Only suitable for
+	 * scanners where the budget controls throughput rather than sample density.
+	 * For an async CuboidScanner the budget limits how many results of a worker
+	 * pass are handed to blockScan() per tick.
+	 *
+	 * @param targetNanos Target duration of an update in nanoseconds
+	 * @param minBlocks   Lower bound of the budget
+	 * @param maxBlocks   Upper bound of the budget
+	 */
+	public void setAdaptiveBudget(final long targetNanos, final int minBlocks, final int maxBlocks) {
+		this.targetNanos = targetNanos;
+		this.minBlocksPerTick = Math.max(1, minBlocks);
+		this.maxBlocksPerTick = Math.max(this.minBlocksPerTick, maxBlocks);
+		this.nanosPerBlock = 0;
+		this.blocksPerTick = MathHelper.clamp(this.blocksPerTick, this.minBlocksPerTick, this.maxBlocksPerTick);
+	}
+
+	/**
+	 * Current per tick block budget
+	 */
+	public int getBlocksPerTick() {
+		return this.blocksPerTick;
+	}
+
 	/**
 	 * The volume of the scan area
 	 */
@@ -122,6 +163,25 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 		return state != Blocks.AIR.getDefaultState();
 	}
 
+	/**
+	 * Reads the block state at the position. Goes through the shared reader when
+	 * the scanner is part of a CompositeScanner. The shared reader checks
+	 * availability against the same locus provider, so both paths see the same
+	 * blocks.
+	 */
+	@Nonnull
+	protected IBlockState getBlockState(@Nonnull final BlockPos pos) {
+		return this.reader != null ? this.reader.getBlockState(pos) : this.locus.getWorld().getBlockState(pos);
+	}
+
+	/**
+	 * Hands a block of interest found by a scan to blockScan(). Override to
+	 * observe the blocks found.
+	 */
+	protected void process(@Nonnull final IBlockState state, @Nonnull final BlockPos pos) {
+		blockScan(state, pos, this.random);
+	}
+
 	@Override
 	public Void call() {
 		update();
@@ -139,21 +199,45 @@ public abstract class Scanner implements ITickable, Callable<Void> {
 	@Override
 	public void update() {
 
+		final long start = isBudgetAdaptive() ? System.nanoTime() : 0;
+
 		preScan();
 
-		final IBlockAccessEx provider = this.locus.getWorld();
-		for (int count = 0; count < this.blocksPerTick; count++) {
+		int count = 0;
+		for (; count < this.blocksPerTick; count++) {
 			final BlockPos pos = nextPos(this.workingPos, this.random);
 			if (pos == null)
 				break;
-			final IBlockState state = provider.getBlockState(pos);
+			final IBlockState state = getBlockState(pos);
 			if (interestingBlock(state)) {
-				blockScan(state, pos, this.random);
+				process(state, pos);
 			}
 		}
 
 		postScan();
 
+		if (isBudgetAdaptive())
+			adjustBudget(System.nanoTime() - start, count);
+	}
+
+	boolean isBudgetAdaptive() {
+		return this.targetNanos > 0;
+	}
+
+	/**
+	 * Folds the time taken to process a number of blocks into the cost estimate
+	 * and resizes the budget.
+	 */
+	void adjustBudget(final long elapsed, final int processed) {
+		if (processed < MIN_BUDGET_SAMPLE)
+			return;
+		final double cost = (double) elapsed / processed;
+		if (this.nanosPerBlock == 0)
+			this.nanosPerBlock = cost;
+		else
+			this.nanosPerBlock += (cost - this.nanosPerBlock) * BUDGET_SMOOTHING;
+		final int budget = (int) Math.min(this.targetNanos / this.nanosPerBlock, Integer.MAX_VALUE);
+		this.blocksPerTick = MathHelper.clamp(budget, this.minBlocksPerTick, this.maxBlocksPerTick);
 	}
 
 	/**
@@ -0,0 +1,196 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Per chunk section record of the positions a CuboidScanner found interesting.
+ * Each section is a 4096 bit mask indexed the same way as section storage.
+ * Sections are recorded while a full scan is in progress and become usable
+ * once that scan completes. Usable sections are patched as blocks change so
+ * that re-entering a region can replay the mask rather than read every block
+ * state again.
+ */
+final class SectionIndex {
+
+	private static final int WORDS = 4096 / Long.SIZE;
+
+	// Sections that are complete and kept up to date
+	private final Long2ObjectOpenHashMap<long[]> valid = new Long2ObjectOpenHashMap<>();
+	// Sections being recorded by the scan in progress
+	private final Long2ObjectOpenHashMap<long[]> building = new Long2ObjectOpenHashMap<>();
+
+	public static long key(final int cx, final int sy, final int cz) {
+		return (((long) cx & 0xFFFFFFL) << 28) | (((long) cz & 0xFFFFFFL) << 4) | (sy & 15);
+	}
+
+	private static long key(@Nonnull final BlockPos pos) {
+		return key(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+	}
+
+	private static int bit(final int x, final int y, final int z) {
+		return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+	}
+
+	/**
+	 * Obtains the mask of a complete section, or null if the section is not
+	 * known.
+	 */
+	@Nullable
+	public long[] get(final long key) {
+		return this.valid.get(key);
+	}
+
+	/**
+	 * Starts recording a section as part of the current scan.
+	 */
+	public void startRecording(final long key) {
+		this.building.put(key, new long[WORDS]);
+	}
+
+	/**
+	 * Records an interesting position found by the current scan. Ignored if the
+	 * section is not being recorded.
+	 */
+	public void record(@Nonnull final BlockPos pos) {
+		final long[] bits = this.building.get(key(pos));
+		if (bits != null) {
+			final int idx = bit(pos.getX(), pos.getY(), pos.getZ());
+			bits[idx >> 6] |= 1L << idx;
+		}
+	}
+
+	/**
+	 * The current scan finished; the recorded sections become usable.
+	 */
+	public void commit() {
+		if (!this.building.isEmpty()) {
+			this.valid.putAll(this.building);
+			this.building.clear();
+		}
+	}
+
+	/**
+	 * The current scan was abandoned; anything recorded is discarded.
+	 */
+	public void abandon() {
+		this.building.clear();
+	}
+
+	/**
+	 * Patches the index for a block change. A section being recorded is dropped
+	 * instead since the change can race with the scan that is recording it.
+	 */
+	public void update(@Nonnull final BlockPos pos, final boolean interesting) {
+		if (pos.getY() < 0 || pos.getY() > 255)
+			return;
+		final long key = key(pos);
+		this.building.remove(key);
+		final long[] bits = this.valid.get(key);
+		if (bits != null) {
+			final int idx = bit(pos.getX(), pos.getY(), pos.getZ());
+			if (interesting)
+				bits[idx >> 6] |= 1L << idx;
+			else
+				bits[idx >> 6] &= ~(1L << idx);
+		}
+	}
+
+	/**
+	 * Drops all sections that intersect the provided block range.
+	 */
+	public void invalidate(final int x1, final int y1, final int z1, final int x2, final int y2, final int z2) {
+		final int minSY = Math.max(Math.min(y1, y2), 0) >> 4;
+		final int maxSY = Math.min(Math.max(y1, y2), 255) >> 4;
+		for (int cx = Math.min(x1, x2) >> 4; cx <= Math.max(x1, x2) >> 4; cx++)
+			for (int cz = Math.min(z1, z2) >> 4; cz <= Math.max(z1, z2) >> 4; cz++)
+				for (int sy = minSY; sy <= maxSY; sy++) {
+					final long key = key(cx, sy, cz);
+					this.valid.remove(key);
+					this.building.remove(key);
+				}
+	}
+
+	/**
+	 * Drops all sections of a chunk column.
+	 */
+	public void invalidateColumn(final int cx, final int cz) {
+		invalidate(cx << 4, 0, cz << 4, (cx << 4) + 15, 255, (cz << 4) + 15);
+	}
+
+	/**
+	 * Drops complete sections whose chunk is further than the given distance from
+	 * the provided chunk.
+	 */
+	public void prune(final int cx, final int cz, final int distance) {
+		final ObjectIterator<Long2ObjectMap.Entry<long[]>> itr = this.valid.long2ObjectEntrySet().fastIterator();
+		while (itr.hasNext()) {
+			final long key = itr.next().getLongKey();
+			final int x = (int) (key << 12 >> 40);
+			final int z = (int) (key << 36 >> 40);
+			if (Math.abs(x - cx) > distance || Math.abs(z - cz) > distance)
+				itr.remove();
+		}
+	}
+
+	public int size() {
+		return this.valid.size();
+	}
+
+	public void clear() {
+		this.valid.clear();
+		this.building.clear();
+	}
+
+	/**
+	 * Invokes the consumer for each position set in the mask.
+	 */
+	public static void forEach(@Nonnull final long[] bits, final int cx, final int sy, final int cz,
+			@Nonnull final IPositionConsumer consumer) {
+		final int baseX = cx << 4;
+		final int baseY = sy << 4;
+		final int baseZ = cz << 4;
+		for (int w = 0; w < bits.length; w++) {
+			long word = bits[w];
+			while (word != 0) {
+				final int idx = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+				consumer.accept(baseX + (idx & 15), baseY + (idx >> 8), baseZ + ((idx >> 4) & 15));
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface IPositionConsumer {
+		void accept(final int x, final int y, final int z);
+	}
+}
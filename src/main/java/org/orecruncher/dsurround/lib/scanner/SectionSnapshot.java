@@ -0,0 +1,240 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.mixins.IBlockStateContainerMixin;
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.BlockStateContainer;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Immutable copy of the block states of a 16x16x16 chunk section. The packed
+ * storage of the section is copied along with its local palette so taking a
+ * snapshot is cheap, and once taken it can be read from any thread.
+ */
+public final class SectionSnapshot {
+
+	// Above this many bits per entry a container uses the global palette
+	private static final int MAX_LOCAL_BITS = 8;
+
+	private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+	/**
+	 * Snapshot of a section that is entirely air.
+	 */
+	public static final SectionSnapshot EMPTY = new SectionSnapshot(new IBlockState[] { AIR }, new long[0], 0);
+
+	// Local palette indexed by storage value. Null if the section uses the
+	// global state ID palette.
+	private final IBlockState[] palette;
+	private final long[] data;
+	private final int bits;
+	private final long mask;
+
+	private SectionSnapshot(@Nullable final IBlockState[] palette, @Nonnull final long[] data, final int bits) {
+		this.palette = palette;
+		this.data = data;
+		this.bits = bits;
+		this.mask = (1L << bits) - 1L;
+	}
+
+	/**
+	 * Takes a snapshot of the provided section. Must be called on the thread that
+	 * owns the section.
+	 *
+	 * @param section Section to copy; null is treated as all air
+	 * @return Snapshot of the section
+	 */
+	@Nonnull
+	public static SectionSnapshot of(@Nullable final ExtendedBlockStorage section) {
+		if (section == null || section.isEmpty())
+			return EMPTY;
+
+		final BlockStateContainer container = section.getData();
+		final IBlockStateContainerMixin accessor = (IBlockStateContainerMixin) container;
+		final int bits = accessor.getBits();
+		final long[] data = accessor.getStorage().getBackingLongArray().clone();
+
+		IBlockState[] palette = null;
+		if (bits <= MAX_LOCAL_BITS) {
+			final IBlockStatePalette p = accessor.getPalette();
+			palette = new IBlockState[1 << bits];
+			for (int i = 0; i < palette.length; i++) {
+				final IBlockState state = p.getBlockState(i);
+				palette[i] = state != null ? state : AIR;
+			}
+		}
+
+		return new SectionSnapshot(palette, data, bits);
+	}
+
+	/**
+	 * Takes a snapshot of a section by reading each of its positions from the
+	 * provided block access. Used when the access is not backed by a World, such
+	 * as a synthetic world, so there is no section storage to copy. Must be called
+	 * on the thread that owns the block access.
+	 *
+	 * @param access Block access to read from
+	 * @param cx     Chunk X coordinate
+	 * @param sy     Section Y coordinate
+	 * @param cz     Chunk Z coordinate
+	 * @return Snapshot of the section
+	 */
+	@Nonnull
+	public static SectionSnapshot copy(@Nonnull final IBlockAccessEx access, final int cx, final int sy,
+			final int cz) {
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		final Reference2IntOpenHashMap<IBlockState> lookup = new Reference2IntOpenHashMap<>();
+		lookup.defaultReturnValue(-1);
+		final IBlockState[] states = new IBlockState[4096];
+		final int[] values = new int[4096];
+		int count = 0;
+		for (int y = 0; y < 16; y++)
+			for (int z = 0; z < 16; z++)
+				for (int x = 0; x < 16; x++) {
+					final IBlockState state = access
+							.getBlockState(pos.setPos((cx << 4) + x, (sy << 4) + y, (cz << 4) + z));
+					int value = lookup.getInt(state);
+					if (value < 0) {
+						value = count++;
+						lookup.put(state, value);
+						states[value] = state;
+					}
+					values[(y << 8) | (z << 4) | x] = value;
+				}
+
+		if (count == 1)
+			return new SectionSnapshot(new IBlockState[] { states[0] }, new long[0], 0);
+
+		IBlockState[] palette = null;
+		int bits = 32 - Integer.numberOfLeadingZeros(count - 1);
+		if (bits <= MAX_LOCAL_BITS) {
+			palette = new IBlockState[1 << bits];
+			for (int i = 0; i < palette.length; i++)
+				palette[i] = i < count ? states[i] : AIR;
+		} else {
+			int max = 0;
+			for (int i = 0; i < values.length; i++) {
+				values[i] = Block.getStateId(states[values[i]]);
+				max = Math.max(max, values[i]);
+			}
+			bits = 32 - Integer.numberOfLeadingZeros(max);
+		}
+
+		// Same layout as BitArray so getValue() can read it back
+		final long[] data = new long[(values.length * bits + 63) >> 6];
+		for (int i = 0; i < values.length; i++) {
+			final int bitIndex = i * bits;
+			final int start = bitIndex >> 6;
+			final int end = ((i + 1) * bits - 1) >> 6;
+			final int offset = bitIndex & 63;
+			data[start] |= (long) values[i] << offset;
+			if (start != end)
+				data[end] |= (long) values[i] >>> (64 - offset);
+		}
+		return new SectionSnapshot(palette, data, bits);
+	}
+
+	/**
+	 * Determines if the section could contain a state accepted by the predicate.
+	 * Only the palette is examined. Sections using the global palette cannot be
+	 * ruled out so true is returned.
+	 */
+	public boolean mayContain(@Nonnull final Predicate<IBlockState> predicate) {
+		if (this.palette == null)
+			return true;
+		for (final IBlockState state : this.palette)
+			if (predicate.test(state))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Determines if a live section could contain a state accepted by the
+	 * predicate by examining its palette. Must be called on the thread that owns
+	 * the section.
+	 *
+	 * @param section   Section to examine; null is treated as all air
+	 * @param predicate Test to apply to the palette entries
+	 * @return true if the section may contain a matching state, false otherwise
+	 */
+	public static boolean mayContain(@Nullable final ExtendedBlockStorage section,
+			@Nonnull final Predicate<IBlockState> predicate) {
+		if (section == null || section.isEmpty())
+			return predicate.test(AIR);
+
+		final IBlockStateContainerMixin accessor = (IBlockStateContainerMixin) section.getData();
+		final int bits = accessor.getBits();
+		if (bits > MAX_LOCAL_BITS)
+			return true;
+
+		final IBlockStatePalette p = accessor.getPalette();
+		final int count = 1 << bits;
+		for (int i = 0; i < count; i++) {
+			final IBlockState state = p.getBlockState(i);
+			if (state != null && predicate.test(state))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Obtains the block state at the given section relative coordinate.
+	 */
+	@Nonnull
+	public IBlockState getBlockState(final int x, final int y, final int z) {
+		if (this.bits == 0)
+			return this.palette[0];
+
+		final int value = getValue(((y & 15) << 8) | ((z & 15) << 4) | (x & 15));
+		if (this.palette != null)
+			return this.palette[value];
+		final IBlockState state = Block.BLOCK_STATE_IDS.getByValue(value);
+		return state != null ? state : AIR;
+	}
+
+	// Mirrors BitArray.getAt(). Values may straddle two longs.
+	private int getValue(final int index) {
+		final int bitIndex = index * this.bits;
+		final int start = bitIndex >> 6;
+		final int end = ((index + 1) * this.bits - 1) >> 6;
+		final int offset = bitIndex & 63;
+		if (start == end)
+			return (int) (this.data[start] >>> offset & this.mask);
+		return (int) ((this.data[start] >>> offset | this.data[end] << (64 - offset)) & this.mask);
+	}
+}
@@ -0,0 +1,127 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Block state reader shared by the scanners of a CompositeScanner for the
+ * duration of a tick. Chunk sections are looked up once for the group rather
+ * than per read, and a read is then a direct section access. Positions are not
+ * cached; most reads come from random probes that are not repeated within a
+ * tick, so a per position map costs more than the section read it saves. Only
+ * valid on the client thread between begin() and end().
+ *
+ * The locus provider (ClientChunkCache) stays the source of truth for what can
+ * be read: a section is only used if the provider reports its origin as
+ * available, otherwise reads return air as they would through the provider.
+ * The provider has no section level access, so the sections themselves come
+ * from the loaded chunks of the World it is built over, the same chunks its
+ * own getBlockState() resolves to.
+ */
+final class SharedBlockReader {
+
+	private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+	// Stands in for a section that is not present so that the miss is cached
+	private static final ExtendedBlockStorage NO_SECTION = new ExtendedBlockStorage(0, false);
+
+	private final Long2ObjectOpenHashMap<ExtendedBlockStorage> sections = new Long2ObjectOpenHashMap<>(256);
+
+	private final BlockPos.MutableBlockPos origin = new BlockPos.MutableBlockPos();
+
+	private IBlockAccessEx provider;
+	private World world;
+	private int reads;
+
+	// Last section looked up; consecutive reads tend to land in the same one
+	private long lastKey;
+	private ExtendedBlockStorage lastSection;
+
+	public void begin(@Nonnull final IBlockAccessEx provider, @Nonnull final World world) {
+		this.provider = provider;
+		this.world = world;
+		this.reads = 0;
+		this.lastSection = null;
+	}
+
+	public void end() {
+		this.provider = null;
+		this.world = null;
+		this.lastSection = null;
+		this.sections.clear();
+	}
+
+	/**
+	 * Number of positions read since begin()
+	 */
+	public int getReads() {
+		return this.reads;
+	}
+
+	@Nonnull
+	public IBlockState getBlockState(@Nonnull final BlockPos pos) {
+		final int y = pos.getY();
+		if (y < 0 || y > 255)
+			return AIR;
+
+		final int x = pos.getX();
+		final int z = pos.getZ();
+		final ExtendedBlockStorage section = getSection(x >> 4, y >> 4, z >> 4);
+		this.reads++;
+		return section == null ? AIR : section.get(x & 15, y & 15, z & 15);
+	}
+
+	@Nullable
+	private ExtendedBlockStorage getSection(final int cx, final int sy, final int cz) {
+		final long key = SectionIndex.key(cx, sy, cz);
+		if (this.lastSection != null && key == this.lastKey)
+			return this.lastSection == NO_SECTION ? null : this.lastSection;
+
+		ExtendedBlockStorage section = this.sections.get(key);
+		if (section == null) {
+			final Chunk chunk = this.provider.isAvailable(this.origin.setPos(cx << 4, sy << 4, cz << 4))
+					? this.world.getChunkProvider().getLoadedChunk(cx, cz)
+					: null;
+			section = chunk == null ? null : chunk.getBlockStorageArray()[sy];
+			if (section == null || section.isEmpty())
+				section = NO_SECTION;
+			this.sections.put(key, section);
+		}
+		this.lastKey = key;
+		this.lastSection = section;
+		return section == NO_SECTION ? null : section;
+	}
+}
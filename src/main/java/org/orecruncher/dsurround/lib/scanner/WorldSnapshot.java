@@ -0,0 +1,183 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.chunk.IBlockAccessEx;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Immutable copy of the chunk sections that cover a region of the world.
+ * Captured on the client thread and then read by a worker thread. Chunks that
+ * were not loaded at the time of capture are reported as unavailable, the same
+ * as the live world.
+ */
+public final class WorldSnapshot {
+
+	private static final int SECTIONS = 16;
+	private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+	private final int minChunkX;
+	private final int minChunkZ;
+	private final int sizeX;
+	private final int sizeZ;
+
+	// Section columns indexed by chunk. A null column indicates the chunk was
+	// not available at the time of capture.
+	private final SectionSnapshot[][] columns;
+
+	private WorldSnapshot(final int minChunkX, final int minChunkZ, final int sizeX, final int sizeZ) {
+		this.minChunkX = minChunkX;
+		this.minChunkZ = minChunkZ;
+		this.sizeX = sizeX;
+		this.sizeZ = sizeZ;
+		this.columns = new SectionSnapshot[sizeX * sizeZ][];
+	}
+
+	/**
+	 * Captures the sections of the loaded chunks that intersect the provided
+	 * region. Must be called on the thread that owns the world.
+	 *
+	 * @param world World to capture from
+	 * @param min   Minimum point of the region
+	 * @param max   Maximum point of the region
+	 * @return Snapshot of the region
+	 */
+	@Nonnull
+	public static WorldSnapshot capture(@Nonnull final World world, @Nonnull final BlockPos min,
+			@Nonnull final BlockPos max) {
+		final int minCX = min.getX() >> 4;
+		final int minCZ = min.getZ() >> 4;
+		final int maxCX = max.getX() >> 4;
+		final int maxCZ = max.getZ() >> 4;
+		final int minSY = Math.max(min.getY(), 0) >> 4;
+		final int maxSY = Math.min(max.getY(), 255) >> 4;
+
+		final WorldSnapshot result = new WorldSnapshot(minCX, minCZ, maxCX - minCX + 1, maxCZ - minCZ + 1);
+		for (int cx = minCX; cx <= maxCX; cx++)
+			for (int cz = minCZ; cz <= maxCZ; cz++) {
+				final Chunk chunk = world.getChunkProvider().getLoadedChunk(cx, cz);
+				if (chunk == null || chunk.isEmpty())
+					continue;
+				final ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+				final SectionSnapshot[] column = new SectionSnapshot[SECTIONS];
+				for (int sy = 0; sy < SECTIONS; sy++)
+					column[sy] = sy >= minSY && sy <= maxSY ? SectionSnapshot.of(storage[sy]) : SectionSnapshot.EMPTY;
+				result.columns[result.index(cx, cz)] = column;
+			}
+		return result;
+	}
+
+	/**
+	 * Captures the region by reading it through the provided block access rather
+	 * than copying section storage. Intended for block access that is not backed
+	 * by a World. Must be called on the thread that owns the block access.
+	 *
+	 * @param access Block access to capture from
+	 * @param min    Minimum point of the region
+	 * @param max    Maximum point of the region
+	 * @return Snapshot of the region
+	 */
+	@Nonnull
+	public static WorldSnapshot capture(@Nonnull final IBlockAccessEx access, @Nonnull final BlockPos min,
+			@Nonnull final BlockPos max) {
+		final int minCX = min.getX() >> 4;
+		final int minCZ = min.getZ() >> 4;
+		final int maxCX = max.getX() >> 4;
+		final int maxCZ = max.getZ() >> 4;
+		final int minSY = Math.max(min.getY(), 0) >> 4;
+		final int maxSY = Math.min(max.getY(), 255) >> 4;
+
+		final BlockPos.MutableBlockPos origin = new BlockPos.MutableBlockPos();
+		final WorldSnapshot result = new WorldSnapshot(minCX, minCZ, maxCX - minCX + 1, maxCZ - minCZ + 1);
+		for (int cx = minCX; cx <= maxCX; cx++)
+			for (int cz = minCZ; cz <= maxCZ; cz++) {
+				if (!access.isAvailable(origin.setPos(cx << 4, 0, cz << 4)))
+					continue;
+				final SectionSnapshot[] column = new SectionSnapshot[SECTIONS];
+				for (int sy = 0; sy < SECTIONS; sy++)
+					column[sy] = sy >= minSY && sy <= maxSY ? SectionSnapshot.copy(access, cx, sy, cz)
+							: SectionSnapshot.EMPTY;
+				result.columns[result.index(cx, cz)] = column;
+			}
+		return result;
+	}
+
+	/**
+	 * Determines if the chunk containing the position was captured.
+	 */
+	public boolean isAvailable(@Nonnull final BlockPos pos) {
+		final int idx = index(pos.getX() >> 4, pos.getZ() >> 4);
+		return idx >= 0 && this.columns[idx] != null;
+	}
+
+	/**
+	 * Obtains the section snapshot that contains the position, or null if the
+	 * chunk was not captured or the position is outside of the world height.
+	 */
+	@Nullable
+	public SectionSnapshot getSection(@Nonnull final BlockPos pos) {
+		final int idx = index(pos.getX() >> 4, pos.getZ() >> 4);
+		if (idx < 0 || pos.getY() < 0 || pos.getY() > 255)
+			return null;
+		final SectionSnapshot[] column = this.columns[idx];
+		return column != null ? column[pos.getY() >> 4] : null;
+	}
+
+	/**
+	 * Obtains the section snapshot at the given chunk/section coordinate, or null
+	 * if the chunk was not captured.
+	 */
+	@Nullable
+	public SectionSnapshot getSection(final int cx, final int sy, final int cz) {
+		final int idx = index(cx, cz);
+		if (idx < 0 || sy < 0 || sy >= SECTIONS)
+			return null;
+		final SectionSnapshot[] column = this.columns[idx];
+		return column != null ? column[sy] : null;
+	}
+
+	@Nonnull
+	public IBlockState getBlockState(@Nonnull final BlockPos pos) {
+		final SectionSnapshot section = getSection(pos);
+		return section != null ? section.getBlockState(pos.getX(), pos.getY(), pos.getZ()) : AIR;
+	}
+
+	private int index(final int cx, final int cz) {
+		final int x = cx - this.minChunkX;
+		final int z = cz - this.minChunkZ;
+		if (x < 0 || x >= this.sizeX || z < 0 || z >= this.sizeZ)
+			return -1;
+		return x * this.sizeZ + z;
+	}
+}
@@ -24,10 +24,12 @@
 
 package org.orecruncher.dsurround.registry;
 
+import java.util.List;
+
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
-import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.RegistryProfile.Phase;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 
 import net.minecraftforge.common.MinecraftForge;
@@ -35,9 +37,21 @@ import net.minecraftforge.common.MinecraftForge;
 public abstract class Registry {
 
 	private final String name;
+	private final Registry[] dependencies;
+	private final RegistryProfile profile = new RegistryProfile();
 
-	public Registry(@Nonnull final String name) {
+	/**
+	 * Creates a registry. Any registries whose data is consumed by this registry
+	 * during initialization need to be listed as dependencies so that the
+	 * RegistryManager can sequence the initialization properly. Dependencies must
+	 * have been created prior to this registry.
+	 *
+	 * @param name         Name of the registry for logging
+	 * @param dependencies Registries this registry depends on
+	 */
+	public Registry(@Nonnull final String name, @Nonnull final Registry... dependencies) {
 		this.name = name;
+		this.dependencies = dependencies;
 		RegistryManager.REGISTRIES.add(this);
 		MinecraftForge.EVENT_BUS.register(this);
 	}
@@ -47,6 +61,20 @@ public abstract class Registry {
 		return this.name;
 	}
 
+	@Nonnull
+	public Registry[] getDependencies() {
+		return this.dependencies;
+	}
+
+	/**
+	 * Timing and allocation information gathered during the most recent load of
+	 * the registry.
+	 */
+	@Nonnull
+	public RegistryProfile getProfile() {
+		return this.profile;
+	}
+
 	/**
 	 * Initializes the registry to base known state. Internal data structures are
 	 * initialized and made ready to recieve information.
@@ -86,14 +114,46 @@ public abstract class Registry {
 
 	/**
 	 * Called by the RegistryManager when the registry is to initialize its state
-	 * from config data. It is of no interest to derived classes.
+	 * from config data. The list is decoded once by the RegistryManager and shared
+	 * between all registries. This may be invoked on a worker thread once all the
+	 * dependencies of the registry have initialized. It is of no interest to
+	 * derived classes.
 	 */
-	final void initialize(@Nonnull final ConfigData data) {
+	final void initialize(@Nonnull final List<ModConfiguration> data) {
 		ModBase.log().info("Initializing registry [%s]", getName());
+		load(data);
+	}
+
+	/**
+	 * Called by the RegistryManager on the thread that initiated the load once all
+	 * registries have initialized and listeners have been notified.
+	 */
+	final void finish() {
+		this.profile.begin();
+		complete();
+		this.profile.end(Phase.COMPLETE);
+	}
+
+	private void load(@Nonnull final List<ModConfiguration> data) {
+		this.profile.reset();
+		this.profile.begin();
 		preInit();
+		this.profile.end(Phase.PRE_INIT);
+		this.profile.begin();
 		for (final ModConfiguration mcf : data)
 			init(mcf);
+		this.profile.end(Phase.INIT);
+		this.profile.begin();
 		postInit();
+		this.profile.end(Phase.POST_INIT);
+	}
+
+	/**
+	 * Called by the RegistryManager on the thread that initiated the load once all
+	 * registries have initialized. Notifies listeners that the registry has new
+	 * data.
+	 */
+	final void notifyReload() {
 		MinecraftForge.EVENT_BUS.post(new RegistryDataEvent.Reload(this));
 	}
 
@@ -103,11 +163,8 @@ public abstract class Registry {
 	 */
 	public void reload() {
 		ModBase.log().info("Reloading registry [%s]...", getName());
-		preInit();
-		for (final ModConfiguration mcf : RegistryManager.DATA.get())
-			init(mcf);
-		postInit();
-		complete();
+		load(RegistryManager.DATA.get().decode());
+		finish();
 	}
 
 }
@@ -24,14 +24,28 @@
 
 package org.orecruncher.dsurround.registry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
 import javax.annotation.Nonnull;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModInfo;
+import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.registry.RegistryProfile.Phase;
 import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
 import org.orecruncher.dsurround.registry.biome.BiomeRegistry;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateRegistry;
 import org.orecruncher.dsurround.registry.config.ConfigData;
+import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.dsurround.registry.dimension.DimensionRegistry;
 import org.orecruncher.dsurround.registry.effect.EffectRegistry;
 import org.orecruncher.dsurround.registry.footstep.FootstepsRegistry;
@@ -41,6 +55,7 @@ import org.orecruncher.lib.Singleton;
 import org.orecruncher.lib.collections.ObjectArray;
 import org.orecruncher.lib.task.Scheduler;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent.OnConfigChangedEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -82,6 +97,14 @@ public final class RegistryManager {
 
 	final static ObjectArray<Registry> REGISTRIES = new ObjectArray<>(8);
 
+	// Upper bound on the number of threads used to initialize registries
+	private static final int MAX_LOAD_THREADS = 4;
+
+	// Wall time and bytes allocated on the calling thread for the last load,
+	// including config decode. -1 if a load has not happened yet.
+	private static volatile long lastLoadNanos = -1;
+	private static volatile long lastLoadBytes = -1;
+
 	/**
 	 * Generally speaking the reload of the registry is handled by the client thread
 	 * if running as a client. If on a dedicated server, though, it will be handled
@@ -99,7 +122,8 @@ public final class RegistryManager {
 	public static void initialize() {
 
 		if (!ModBase.proxy().isRunningAsServer()) {
-			// Sound is first because other registries depend on it
+			// Sound is first because other registries depend on it. Order of
+			// creation matters; a registry's dependencies have to exist first.
 			SOUND = new SoundRegistry();
 			ACOUSTICS = new AcousticRegistry();
 			BIOME = new BiomeRegistry();
@@ -139,8 +163,118 @@ public final class RegistryManager {
 	}
 
 	private static void load() {
+		final long startBytes = RegistryProfile.allocatedBytes();
+		final long start = System.nanoTime();
 		DATA.clear();
-		REGISTRIES.forEach(r -> r.initialize(DATA.get()));
-		REGISTRIES.forEach(Registry::complete);
+		load(DATA.get()::decode);
+		lastLoadNanos = System.nanoTime() - start;
+		lastLoadBytes = startBytes < 0 ? -1 : RegistryProfile.allocatedBytes() - startBytes;
+		ModBase.log().info("Registry load took %.1fms", lastLoadNanos / 1000000D);
+	}
+
+	/**
+	 * Initializes all the registries from the configuration data provided by the
+	 * decoder. The decoder is invoked once and the result is shared with all the
+	 * registries.
+	 *
+	 * @param decoder Source of the decoded configuration data
+	 */
+	static void load(@Nonnull final Supplier<List<ModConfiguration>> decoder) {
+		final List<ModConfiguration> data = decoder.get();
+		if (ModOptions.general.enableParallelRegistryLoad && REGISTRIES.size() > 1)
+			initializeParallel(data);
+		else
+			REGISTRIES.forEach(r -> r.initialize(data));
+		REGISTRIES.forEach(Registry::notifyReload);
+		REGISTRIES.forEach(Registry::finish);
+	}
+
+	/**
+	 * Generates a human readable breakdown of the time and allocation for each
+	 * registry phase of the last load. Allocation of the registry phases is that of
+	 * the thread executing the phase, so with parallel load the sum of the phases
+	 * can exceed the total reported for the calling thread.
+	 *
+	 * @return List of report lines
+	 */
+	@Nonnull
+	public static List<String> getLoadReport() {
+		final List<String> result = new ArrayList<>();
+		if (lastLoadNanos < 0) {
+			result.add("No registry load has been recorded");
+			return result;
+		}
+
+		result.add(String.format("Last load: %s, %s (calling thread)", formatNanos(lastLoadNanos),
+				formatBytes(lastLoadBytes)));
+		for (final Registry r : REGISTRIES) {
+			final RegistryProfile p = r.getProfile();
+			final StringBuilder builder = new StringBuilder();
+			builder.append(r.getName()).append(": ").append(formatNanos(p.getTotalNanos())).append(", ")
+					.append(formatBytes(p.getTotalBytes()));
+			for (final Phase phase : Phase.values()) {
+				builder.append("; ").append(phase.getLabel()).append(' ').append(formatNanos(p.getNanos(phase)))
+						.append('/').append(formatBytes(p.getBytes(phase)));
+			}
+			result.add(builder.toString());
+		}
+		return result;
+	}
+
+	@Nonnull
+	private static String formatNanos(final long nanos) {
+		return String.format("%.1fms", nanos / 1000000D);
+	}
+
+	@Nonnull
+	private static String formatBytes(final long bytes) {
+		if (bytes < 0)
+			return "n/a";
+		if (bytes < 1024)
+			return bytes + "B";
+		if (bytes < 1024 * 1024)
+			return String.format("%.1fKB", bytes / 1024D);
+		return String.format("%.1fMB", bytes / (1024D * 1024D));
+	}
+
+	/**
+	 * Initializes the registries using a small worker pool. A registry is started
+	 * once all of the registries it depends on have finished, so independent
+	 * registries initialize concurrently. Returns once all registries have been
+	 * processed.
+	 *
+	 * @param data Decoded configuration data to initialize from
+	 */
+	private static void initializeParallel(@Nonnull final List<ModConfiguration> data) {
+		final int threads = Math.max(1, Math.min(MAX_LOAD_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+		final ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			final Thread t = new Thread(r, "DS Registry Loader");
+			t.setDaemon(true);
+			return t;
+		});
+
+		try {
+			final Map<Registry, CompletableFuture<Void>> tasks = new Reference2ObjectOpenHashMap<>();
+			REGISTRIES.forEach(r -> {
+				//@formatter:off
+				final CompletableFuture<?>[] deps =
+					Arrays.stream(r.getDependencies())
+						.map(tasks::get)
+						.filter(Objects::nonNull)
+						.toArray(CompletableFuture[]::new);
+				//@formatter:on
+				tasks.put(r, CompletableFuture.allOf(deps).thenRunAsync(() -> r.initialize(data), pool));
+			});
+			CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[0])).join();
+		} catch (@Nonnull final CompletionException ex) {
+			final Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw ex;
+		} finally {
+			pool.shutdown();
+		}
 	}
 }
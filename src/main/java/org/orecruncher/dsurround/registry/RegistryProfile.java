@@ -0,0 +1,133 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Captures the wall time and the bytes allocated for each phase of a registry
+ * load. Allocation is obtained from the thread allocation counters of the JVM
+ * if they are available; otherwise it is reported as -1. A phase has to begin
+ * and end on the same thread for the allocation figure to be meaningful.
+ */
+public final class RegistryProfile {
+
+	public enum Phase {
+		PRE_INIT("preInit"), INIT("init"), POST_INIT("postInit"), COMPLETE("complete");
+
+		private final String label;
+
+		Phase(@Nonnull final String label) {
+			this.label = label;
+		}
+
+		@Nonnull
+		public String getLabel() {
+			return this.label;
+		}
+	}
+
+	private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+	private final long[] nanos = new long[Phase.values().length];
+	private final long[] bytes = new long[Phase.values().length];
+
+	private long startNanos;
+	private long startBytes;
+
+	public void reset() {
+		for (int i = 0; i < this.nanos.length; i++) {
+			this.nanos[i] = 0;
+			this.bytes[i] = -1;
+		}
+	}
+
+	public void begin() {
+		this.startBytes = allocatedBytes();
+		this.startNanos = System.nanoTime();
+	}
+
+	public void end(@Nonnull final Phase phase) {
+		final long elapsed = System.nanoTime() - this.startNanos;
+		final long allocated = allocatedBytes();
+		this.nanos[phase.ordinal()] = elapsed;
+		this.bytes[phase.ordinal()] = allocated < 0 || this.startBytes < 0 ? -1 : allocated - this.startBytes;
+	}
+
+	public long getNanos(@Nonnull final Phase phase) {
+		return this.nanos[phase.ordinal()];
+	}
+
+	public long getBytes(@Nonnull final Phase phase) {
+		return this.bytes[phase.ordinal()];
+	}
+
+	public long getTotalNanos() {
+		long result = 0;
+		for (final long n : this.nanos)
+			result += n;
+		return result;
+	}
+
+	public long getTotalBytes() {
+		long result = 0;
+		for (final long b : this.bytes) {
+			if (b < 0)
+				return -1;
+			result += b;
+		}
+		return result;
+	}
+
+	/**
+	 * Number of bytes allocated by the current thread over its lifetime, or -1 if
+	 * the JVM does not support thread allocation counters.
+	 */
+	public static long allocatedBytes() {
+		return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+	}
+
+	@Nullable
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		try {
+			final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				final com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+				if (sun.isThreadAllocatedMemorySupported()) {
+					if (!sun.isThreadAllocatedMemoryEnabled())
+						sun.setThreadAllocatedMemoryEnabled(true);
+					return sun;
+				}
+			}
+		} catch (@Nonnull final Throwable t) {
+			// Not available on this JVM
+		}
+		return null;
+	}
+}
@@ -134,7 +134,7 @@ public class AcousticRegistry extends Registry {
 	private int material;
 
 	public AcousticRegistry() {
-		super("Acoustic Registry");
+		super("Acoustic Registry", RegistryManager.SOUND);
 	}
 
 	@Override
@@ -37,13 +37,15 @@ import org.apache.commons.lang3.StringUtils;
 import org.orecruncher.dsurround.capabilities.season.TemperatureRating;
 import org.orecruncher.dsurround.client.handlers.BiomeSoundEffectsHandler;
 import org.orecruncher.dsurround.client.sound.SoundEffect;
+import org.orecruncher.dsurround.expression.ConditionSet;
+import org.orecruncher.dsurround.expression.ExpressionEngine;
+import org.orecruncher.dsurround.lib.FilteredWeightTable;
 import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.config.BiomeConfig;
 import org.orecruncher.dsurround.registry.config.SoundConfig;
 import org.orecruncher.dsurround.registry.config.SoundType;
 import org.orecruncher.lib.Color;
 import org.orecruncher.lib.MyUtils;
-import org.orecruncher.lib.WeightTable;
 import org.orecruncher.lib.collections.ObjectArray;
 
 import com.google.common.collect.Lists;
@@ -66,6 +68,8 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 
 	public final static int DEFAULT_SPOT_CHANCE = 1000 / BiomeSoundEffectsHandler.SCAN_INTERVAL;
 	public final static SoundEffect[] NO_SOUNDS = {};
+	private final static int[] NO_BITS = {};
+	private final static long[] NO_MASK = {};
 
 	protected final IBiome biome;
 
@@ -79,7 +83,10 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 	private float fogDensity = DEFAULT_FOG_DENSITY;
 
 	protected SoundEffect[] sounds = NO_SOUNDS;
+	protected int[] soundBits = NO_BITS;
+	protected long[] soundMask = NO_MASK;
 	protected SoundEffect[] spotSounds = NO_SOUNDS;
+	protected FilteredWeightTable<SoundEffect> spotSoundTable = null;
 	protected int spotSoundChance = DEFAULT_SPOT_CHANCE;
 
 	protected final List<String> comments = Lists.newArrayList();
@@ -236,11 +243,16 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 	}
 
 	void addSound(final SoundEffect sound) {
+		final int bit = RegistryManager.BIOME.getSoundConditions().register(sound.getCondition());
 		this.sounds = MyUtils.append(this.sounds, sound);
+		this.soundBits = Arrays.copyOf(this.soundBits, this.soundBits.length + 1);
+		this.soundBits[this.soundBits.length - 1] = bit;
+		this.soundMask = ConditionSet.set(this.soundMask, bit);
 	}
 
 	void addSpotSound(final SoundEffect sound) {
 		this.spotSounds = MyUtils.append(this.spotSounds, sound);
+		this.spotSoundTable = null;
 	}
 
 	public boolean isFake() {
@@ -278,23 +290,39 @@ public final class BiomeInfo implements Comparable<BiomeInfo> {
 
 	@Nonnull
 	public Collection<SoundEffect> findSoundMatches(@Nonnull final Collection<SoundEffect> results) {
-		for (final SoundEffect sound : this.sounds) {
-			if (sound.matches())
-				results.add(sound);
+		if (this.sounds == NO_SOUNDS)
+			return results;
+
+		// Conditions are evaluated once per variable reset across all biomes. The
+		// mask check lets a biome with nothing active bail without looking at its
+		// sounds.
+		final int generation = ExpressionEngine.instance().getGeneration();
+		final long[] state = RegistryManager.BIOME.getSoundConditions().evaluate(generation);
+		if (!ConditionSet.intersects(this.soundMask, state))
+			return results;
+
+		for (int i = 0; i < this.sounds.length; i++) {
+			if (ConditionSet.isSet(state, this.soundBits[i]))
+				results.add(this.sounds[i]);
 		}
 		return results;
 	}
 
 	@Nullable
 	public SoundEffect getSpotSound(@Nonnull final Random random) {
-		return this.spotSounds != NO_SOUNDS && random.nextInt(this.spotSoundChance) == 0
-				? new WeightTable<>(this.spotSounds).next()
-				: null;
+		if (this.spotSounds == NO_SOUNDS || random.nextInt(this.spotSoundChance) != 0)
+			return null;
+		if (this.spotSoundTable == null)
+			this.spotSoundTable = new FilteredWeightTable<>(this.spotSounds);
+		return this.spotSoundTable.next();
 	}
 
 	void resetSounds() {
 		this.sounds = NO_SOUNDS;
+		this.soundBits = NO_BITS;
+		this.soundMask = NO_MASK;
 		this.spotSounds = NO_SOUNDS;
+		this.spotSoundTable = null;
 		this.spotSoundChance = DEFAULT_SPOT_CHANCE;
 	}
 
@@ -36,7 +36,9 @@ import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModOptions;
 import org.orecruncher.dsurround.capabilities.dimension.IDimensionInfo;
 import org.orecruncher.dsurround.client.handlers.EnvironStateHandler.EnvironState;
+import org.orecruncher.dsurround.expression.ConditionSet;
 import org.orecruncher.dsurround.registry.Registry;
+import org.orecruncher.dsurround.registry.RegistryManager;
 import org.orecruncher.dsurround.registry.config.BiomeConfig;
 import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.lib.math.MathStuff;
@@ -89,14 +91,19 @@ public final class BiomeRegistry extends Registry {
 	private final Map<String, String> biomeAliases = new Object2ObjectOpenHashMap<>();
 	private final ObjectOpenHashSet<FakeBiome> theFakes = new ObjectOpenHashSet<>();
 
+	// Distinct conditions of the biome sounds so they can be evaluated once per
+	// tick rather than once per biome
+	private final ConditionSet soundConditions = new ConditionSet();
+
 	public BiomeRegistry() {
-		super("Biome Registry");
+		super("Biome Registry", RegistryManager.SOUND);
 	}
 
 	@Override
 	protected void preInit() {
 		this.biomeAliases.clear();
 		this.theFakes.clear();
+		this.soundConditions.clear();
 
 		for (final String entry : ModOptions.biomes.biomeAliases) {
 			final String[] parts = StringUtils.split(entry, "=");
@@ -187,6 +194,11 @@ public final class BiomeRegistry extends Registry {
 		}
 	}
 
+	@Nonnull
+	public ConditionSet getSoundConditions() {
+		return this.soundConditions;
+	}
+
 	@Nullable
 	private BiomeInfo resolve(@Nonnull final IBiome biome) {
 		if (biome.isFake()) {
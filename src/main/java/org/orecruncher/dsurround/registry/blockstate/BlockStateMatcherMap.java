@@ -0,0 +1,298 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.blockstate;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.lib.collections.ObjectArray;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap.Entry;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.properties.IProperty;
+import net.minecraft.block.state.IBlockState;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Map keyed by BlockStateMatcher that is indexed per block on property/value
+ * bitsets. Each property/value pair of a block is assigned a bit. A matcher is
+ * reduced to the set of properties it specifies (mask) and the values for those
+ * properties (bits). Finding the matchers for a state becomes a probe per
+ * distinct property combination configured for the block rather than a
+ * comparison against every configured variant.
+ *
+ * @param <T> Type of value stored in the map
+ */
+@SideOnly(Side.CLIENT)
+public final class BlockStateMatcherMap<T> {
+
+	private final Reference2ObjectOpenHashMap<Block, BlockEntries<T>> data = new Reference2ObjectOpenHashMap<>();
+	private int ordinal;
+	private int size;
+
+	/**
+	 * Associates the value with the matcher. If an identical matcher has already
+	 * been registered its value is replaced.
+	 */
+	public void put(@Nonnull final BlockStateMatcher matcher, @Nonnull final T value) {
+		BlockEntries<T> entries = this.data.get(matcher.getBlock());
+		if (entries == null)
+			this.data.put(matcher.getBlock(), entries = new BlockEntries<>(matcher.getBlock()));
+		if (entries.put(matcher, value, this.ordinal++))
+			this.size++;
+	}
+
+	/**
+	 * Obtains the value registered for a matcher identical to the one provided.
+	 */
+	@Nullable
+	public T get(@Nonnull final BlockStateMatcher matcher) {
+		final BlockEntries<T> entries = this.data.get(matcher.getBlock());
+		return entries != null ? entries.get(matcher) : null;
+	}
+
+	/**
+	 * Obtains the value of the most specific registered matcher whose properties
+	 * are a subset of the provided matcher's properties.
+	 */
+	@Nullable
+	public T findMostSpecific(@Nonnull final BlockStateMatcher matcher) {
+		final BlockEntries<T> entries = this.data.get(matcher.getBlock());
+		return entries != null ? entries.find(matcher.props, false) : null;
+	}
+
+	/**
+	 * Obtains the value of the most specific registered matcher that matches the
+	 * provided state.
+	 */
+	@Nullable
+	public T findMostSpecific(@Nonnull final IBlockState state) {
+		final BlockEntries<T> entries = this.data.get(state.getBlock());
+		return entries != null ? entries.find(state.getProperties(), false) : null;
+	}
+
+	/**
+	 * Obtains the value of the most recently registered matcher that matches the
+	 * provided state.
+	 */
+	@Nullable
+	public T findLatest(@Nonnull final IBlockState state) {
+		final BlockEntries<T> entries = this.data.get(state.getBlock());
+		return entries != null ? entries.find(state.getProperties(), true) : null;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public void clear() {
+		this.data.clear();
+		this.ordinal = 0;
+		this.size = 0;
+	}
+
+	private static final class MatchEntry<T> {
+		public final BlockStateMatcher matcher;
+		public final int specificity;
+		public T value;
+		public int ordinal;
+
+		public MatchEntry(@Nonnull final BlockStateMatcher matcher, @Nonnull final T value, final int ordinal) {
+			this.matcher = matcher;
+			this.specificity = matcher.props.size();
+			this.value = value;
+			this.ordinal = ordinal;
+		}
+
+		public boolean isBetter(@Nullable final MatchEntry<T> current, final boolean latest) {
+			if (current == null)
+				return true;
+			if (latest)
+				return this.ordinal > current.ordinal;
+			return this.specificity > current.specificity;
+		}
+	}
+
+	private static final class BlockEntries<T> {
+
+		// Entries keyed by their value bits. Each element of the list is the
+		// map for a distinct property mask.
+		private final LongArrayList masks = new LongArrayList(2);
+		private final ObjectArray<Long2ObjectOpenHashMap<MatchEntry<T>>> entries = new ObjectArray<>(2);
+
+		// Per property bit assignment. Null if the block has too many property
+		// values to fit within a long, in which case a linear scan is used.
+		private final Reference2ObjectOpenHashMap<IProperty<?>, PropertyBits> layout;
+		private final ObjectArray<MatchEntry<T>> overflow;
+
+		public BlockEntries(@Nonnull final Block block) {
+			this.layout = createLayout(block);
+			this.overflow = this.layout == null ? new ObjectArray<>(2) : null;
+		}
+
+		public boolean put(@Nonnull final BlockStateMatcher matcher, @Nonnull final T value, final int ordinal) {
+			final MatchEntry<T> existing = get0(matcher);
+			if (existing != null) {
+				existing.value = value;
+				existing.ordinal = ordinal;
+				return false;
+			}
+
+			final MatchEntry<T> entry = new MatchEntry<>(matcher, value, ordinal);
+			if (this.layout == null) {
+				this.overflow.add(entry);
+			} else {
+				final long mask = mask(matcher.props);
+				int idx = this.masks.indexOf(mask);
+				if (idx < 0) {
+					idx = this.masks.size();
+					this.masks.add(mask);
+					this.entries.add(new Long2ObjectOpenHashMap<>(4));
+				}
+				this.entries.get(idx).put(bits(matcher.props), entry);
+			}
+			return true;
+		}
+
+		@Nullable
+		public T get(@Nonnull final BlockStateMatcher matcher) {
+			final MatchEntry<T> entry = get0(matcher);
+			return entry != null ? entry.value : null;
+		}
+
+		@Nullable
+		private MatchEntry<T> get0(@Nonnull final BlockStateMatcher matcher) {
+			if (this.layout == null) {
+				for (int i = 0; i < this.overflow.size(); i++) {
+					final MatchEntry<T> e = this.overflow.get(i);
+					if (e.matcher.props.equals(matcher.props))
+						return e;
+				}
+				return null;
+			}
+
+			final int idx = this.masks.indexOf(mask(matcher.props));
+			return idx < 0 ? null : this.entries.get(idx).get(bits(matcher.props));
+		}
+
+		@Nullable
+		public T find(@Nonnull final Map<IProperty<?>, ?> props, final boolean latest) {
+			MatchEntry<T> result = null;
+
+			if (this.layout == null) {
+				for (int i = 0; i < this.overflow.size(); i++) {
+					final MatchEntry<T> e = this.overflow.get(i);
+					if (isSubset(e.matcher.props, props) && e.isBetter(result, latest))
+						result = e;
+				}
+			} else {
+				final long queryMask = mask(props);
+				final long queryBits = bits(props);
+				for (int i = 0; i < this.masks.size(); i++) {
+					final long mask = this.masks.getLong(i);
+					// The configured properties have to be present in the query
+					if ((mask & queryMask) != mask)
+						continue;
+					final MatchEntry<T> e = this.entries.get(i).get(queryBits & mask);
+					if (e != null && e.isBetter(result, latest))
+						result = e;
+				}
+			}
+
+			return result != null ? result.value : null;
+		}
+
+		private long mask(@Nonnull final Map<IProperty<?>, ?> props) {
+			long result = 0;
+			for (final IProperty<?> prop : props.keySet()) {
+				final PropertyBits pb = this.layout.get(prop);
+				if (pb != null)
+					result |= pb.mask;
+			}
+			return result;
+		}
+
+		private long bits(@Nonnull final Map<IProperty<?>, ?> props) {
+			long result = 0;
+			for (final Map.Entry<IProperty<?>, ?> e : props.entrySet()) {
+				final PropertyBits pb = this.layout.get(e.getKey());
+				if (pb != null) {
+					final int idx = pb.values.getInt(e.getValue());
+					if (idx >= 0)
+						result |= 1L << (pb.offset + idx);
+				}
+			}
+			return result;
+		}
+
+		private static boolean isSubset(@Nonnull final Reference2ObjectOpenHashMap<IProperty<?>, Object> subset,
+				@Nonnull final Map<IProperty<?>, ?> props) {
+			for (final Entry<IProperty<?>, Object> entry : subset.reference2ObjectEntrySet()) {
+				final Object v = props.get(entry.getKey());
+				if (v == null || !v.equals(entry.getValue()))
+					return false;
+			}
+			return true;
+		}
+
+		@Nullable
+		private static Reference2ObjectOpenHashMap<IProperty<?>, PropertyBits> createLayout(
+				@Nonnull final Block block) {
+			final Reference2ObjectOpenHashMap<IProperty<?>, PropertyBits> result = new Reference2ObjectOpenHashMap<>();
+			int offset = 0;
+			for (final IProperty<?> prop : block.getBlockState().getProperties()) {
+				final int count = prop.getAllowedValues().size();
+				if (offset + count > Long.SIZE)
+					return null;
+				result.put(prop, new PropertyBits(prop, offset));
+				offset += count;
+			}
+			return result;
+		}
+	}
+
+	private static final class PropertyBits {
+		public final int offset;
+		public final long mask;
+		public final Object2IntOpenHashMap<Object> values;
+
+		public PropertyBits(@Nonnull final IProperty<?> prop, final int offset) {
+			this.offset = offset;
+			this.values = new Object2IntOpenHashMap<>();
+			this.values.defaultReturnValue(-1);
+			int idx = 0;
+			for (final Object v : prop.getAllowedValues())
+				this.values.put(v, idx++);
+			this.mask = (idx == Long.SIZE ? -1L : (1L << idx) - 1) << offset;
+		}
+	}
+}
@@ -25,7 +25,6 @@
 package org.orecruncher.dsurround.registry.blockstate;
 
 import java.util.Collection;
-import java.util.Map;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -45,7 +44,6 @@ import org.orecruncher.dsurround.registry.config.ModConfiguration;
 import org.orecruncher.dsurround.registry.config.SoundConfig;
 import org.orecruncher.dsurround.registry.sound.SoundRegistry;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.ResourceLocation;
@@ -57,16 +55,16 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 @SideOnly(Side.CLIENT)
 public final class BlockStateRegistry extends Registry {
 
-	private Map<BlockStateMatcher, BlockStateProfile> registry;
+	private BlockStateMatcherMap<BlockStateProfile> registry;
 	private int blockStates;
 
 	public BlockStateRegistry() {
-		super("BlockState Registry");
+		super("BlockState Registry", RegistryManager.SOUND);
 	}
 
 	@Override
 	protected void preInit() {
-		this.registry = new Object2ObjectOpenHashMap<>();
+		this.registry = new BlockStateMatcherMap<>();
 
 		// Wipe out any cached data
 		getBlockStates().forEach(state -> BlockStateUtil.setStateData(state, null));
@@ -105,9 +103,7 @@ public final class BlockStateRegistry extends Registry {
 			if (this.registry == null) {
 				ModBase.log().warn("Unknown blockstate encountered '%s'", state.toString());
 			} else {
-				profile = this.registry.get(BlockStateMatcher.create(state));
-				if (profile == null)
-					profile = this.registry.get(BlockStateMatcher.asGeneric(state));
+				profile = this.registry.findMostSpecific(state);
 			}
 			if (profile == null)
 				profile = BlockStateData.DEFAULT;
@@ -121,7 +117,9 @@ public final class BlockStateRegistry extends Registry {
 		if (info.getBlock() == Blocks.AIR)
 			return null;
 
-		BlockStateProfile profile = this.registry.get(info);
+		// An existing profile whose matcher is covered by the new one is reused.
+		// This mirrors the subset equality the matcher has always had.
+		BlockStateProfile profile = this.registry.findMostSpecific(info);
 		if (profile == null) {
 			profile = new BlockStateProfile();
 			this.registry.put(info, profile);
@@ -0,0 +1,702 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.orecruncher.dsurround.ModBase;
+import org.orecruncher.dsurround.ModInfo;
+import org.orecruncher.dsurround.registry.config.ModConfiguration.ForgeEntry;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * On disk cache of the parsed ModConfiguration objects. The cache is keyed by a
+ * hash of the compressed ConfigData bits, the mod version and the layout of the
+ * config classes so that if nothing has changed in the underlying Json the
+ * configuration can be restored without having to go through Gson. The format
+ * is a simple hand rolled binary stream; if anything about it looks off the
+ * cache is ignored and the caller falls back to parsing.
+ */
+final class ConfigCache {
+
+	private static final String CACHE_FILE = "configcache.bin";
+	private static final int MAGIC = 0x44534343; // DSCC
+	private static final int VERSION = 1;
+
+	private static final byte JSON_NULL = 0;
+	private static final byte JSON_BOOLEAN = 1;
+	private static final byte JSON_NUMBER = 2;
+	private static final byte JSON_STRING = 3;
+	private static final byte JSON_ARRAY = 4;
+	private static final byte JSON_OBJECT = 5;
+
+	private ConfigCache() {
+
+	}
+
+	@Nonnull
+	private static File getCacheFile() {
+		return new File(ModBase.dataDirectory(), CACHE_FILE);
+	}
+
+	/**
+	 * Generates the key to use for the cache based on the provided bits. The mod
+	 * version and the shape of the configuration classes are folded in so that an
+	 * update that changes how the Json is interpreted does not pick up stale data
+	 * even though the config files themselves are unchanged.
+	 */
+	@Nonnull
+	static byte[] hash(@Nonnull final byte[] bits) {
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA-1");
+			md.update(ModInfo.VERSION.getBytes(StandardCharsets.UTF_8));
+			md.update(schema().getBytes(StandardCharsets.UTF_8));
+			return md.digest(bits);
+		} catch (@Nonnull final Throwable t) {
+			// Should never happen - SHA-1 is required to be present
+			ModBase.log().error("Unable to hash config data", t);
+			return new byte[0];
+		}
+	}
+
+	/**
+	 * Describes the fields of ModConfiguration and the config classes it reaches.
+	 */
+	@Nonnull
+	static String schema() {
+		final StringBuilder builder = new StringBuilder();
+		describe(ModConfiguration.class, builder, new HashSet<>());
+		return builder.toString();
+	}
+
+	private static void describe(@Nonnull final Type type, @Nonnull final StringBuilder builder,
+			@Nonnull final Set<Class<?>> seen) {
+		if (type instanceof ParameterizedType) {
+			for (final Type arg : ((ParameterizedType) type).getActualTypeArguments())
+				describe(arg, builder, seen);
+			return;
+		}
+		if (!(type instanceof Class))
+			return;
+
+		final Class<?> clazz = (Class<?>) type;
+		if (clazz.getPackage() != ModConfiguration.class.getPackage() || !seen.add(clazz))
+			return;
+
+		final Field[] fields = clazz.getDeclaredFields();
+		Arrays.sort(fields, Comparator.comparing(Field::getName));
+		builder.append(clazz.getName()).append('{');
+		for (final Field f : fields) {
+			if (Modifier.isStatic(f.getModifiers()))
+				continue;
+			final SerializedName name = f.getAnnotation(SerializedName.class);
+			builder.append(name != null ? name.value() : f.getName()).append(':');
+			builder.append(f.getGenericType().getTypeName()).append(';');
+		}
+		builder.append('}');
+		for (final Field f : fields) {
+			if (!Modifier.isStatic(f.getModifiers()))
+				describe(f.getGenericType(), builder, seen);
+		}
+	}
+
+	/**
+	 * Attempts to read the ModConfiguration list from the cache. If the cache does
+	 * not exist, the key does not match, or it cannot be read null is returned.
+	 */
+	@Nullable
+	static List<ModConfiguration> read(@Nonnull final byte[] key) {
+		return read(getCacheFile(), key);
+	}
+
+	@Nullable
+	static List<ModConfiguration> read(@Nonnull final File file, @Nonnull final byte[] key) {
+		if (key.length == 0 || !file.exists())
+			return null;
+
+		try (final DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return null;
+			final byte[] cachedKey = new byte[in.readUnsignedShort()];
+			in.readFully(cachedKey);
+			if (!Arrays.equals(key, cachedKey))
+				return null;
+
+			final int count = in.readInt();
+			final ImmutableList.Builder<ModConfiguration> builder = ImmutableList.builder();
+			for (int i = 0; i < count; i++)
+				builder.add(readModConfiguration(in));
+			return builder.build();
+		} catch (@Nonnull final Throwable t) {
+			ModBase.log().warn("Unable to read config cache, will be regenerated: %s", t.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the ModConfiguration list to the cache using the specified key.
+	 * Failure is logged and otherwise ignored since the cache is an optimization.
+	 */
+	static void write(@Nonnull final byte[] key, @Nonnull final List<ModConfiguration> data) {
+		write(getCacheFile(), key, data);
+	}
+
+	static void write(@Nonnull final File file, @Nonnull final byte[] key,
+			@Nonnull final List<ModConfiguration> data) {
+		if (key.length == 0)
+			return;
+
+		try (final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeShort(key.length);
+			out.write(key);
+			out.writeInt(data.size());
+			for (final ModConfiguration mcf : data)
+				writeModConfiguration(out, mcf);
+		} catch (@Nonnull final Throwable t) {
+			ModBase.log().warn("Unable to write config cache: %s", t.getMessage());
+			file.delete();
+		}
+	}
+
+	// ---------------------------------------------------------------------
+	// ModConfiguration graph
+
+	private static void writeModConfiguration(@Nonnull final DataOutputStream out,
+			@Nonnull final ModConfiguration mcf) throws IOException {
+		writeString(out, mcf.source);
+		writeInt(out, mcf.sounds.size());
+		for (final Entry<String, SoundMetadataConfig> e : mcf.sounds.entrySet()) {
+			writeString(out, e.getKey());
+			writeSoundMetadata(out, e.getValue());
+		}
+		writeInt(out, mcf.biomes.size());
+		for (final BiomeConfig c : mcf.biomes)
+			writeBiome(out, c);
+		writeStringMap(out, mcf.biomeAlias);
+		writeInt(out, mcf.blocks.size());
+		for (final BlockConfig c : mcf.blocks)
+			writeBlock(out, c);
+		writeInt(out, mcf.dimensions.size());
+		for (final DimensionConfig c : mcf.dimensions)
+			writeDimension(out, c);
+		writeStringMap(out, mcf.footsteps);
+		writeStringList(out, mcf.footprints);
+		writeInt(out, mcf.forgeMappings.size());
+		for (final ForgeEntry e : mcf.forgeMappings) {
+			writeString(out, e.acousticProfile);
+			writeStringList(out, e.dictionaryEntries);
+		}
+		writeInt(out, mcf.items.size());
+		for (final Entry<String, List<String>> e : mcf.items.entrySet()) {
+			writeString(out, e.getKey());
+			writeStringList(out, e.getValue());
+		}
+		writeInt(out, mcf.variators.size());
+		for (final Entry<String, VariatorConfig> e : mcf.variators.entrySet()) {
+			writeString(out, e.getKey());
+			writeVariator(out, e.getValue());
+		}
+		writeInt(out, mcf.entities.size());
+		for (final Entry<String, EntityConfig> e : mcf.entities.entrySet()) {
+			writeString(out, e.getKey());
+			writeString(out, e.getValue().effects);
+			writeString(out, e.getValue().variator);
+		}
+		writeInt(out, mcf.acoustics.size());
+		for (final Entry<String, JsonElement> e : mcf.acoustics.entrySet()) {
+			writeString(out, e.getKey());
+			writeJson(out, e.getValue());
+		}
+		writeStringMap(out, mcf.primitiveAcoustics);
+	}
+
+	@Nonnull
+	private static ModConfiguration readModConfiguration(@Nonnull final DataInputStream in) throws IOException {
+		final ModConfiguration mcf = new ModConfiguration();
+		mcf.source = readString(in);
+		int count = readInt(in);
+		mcf.sounds = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.sounds.put(readString(in), readSoundMetadata(in));
+		count = readInt(in);
+		mcf.biomes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.biomes.add(readBiome(in));
+		mcf.biomeAlias = readStringMap(in);
+		count = readInt(in);
+		mcf.blocks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.blocks.add(readBlock(in));
+		count = readInt(in);
+		mcf.dimensions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.dimensions.add(readDimension(in));
+		mcf.footsteps = readStringMap(in);
+		mcf.footprints = readStringList(in);
+		count = readInt(in);
+		mcf.forgeMappings = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final ForgeEntry e = new ForgeEntry();
+			e.acousticProfile = readString(in);
+			e.dictionaryEntries = readStringList(in);
+			mcf.forgeMappings.add(e);
+		}
+		count = readInt(in);
+		mcf.items = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.items.put(readString(in), readStringList(in));
+		count = readInt(in);
+		mcf.variators = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.variators.put(readString(in), readVariator(in));
+		count = readInt(in);
+		mcf.entities = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			final String key = readString(in);
+			final EntityConfig c = new EntityConfig();
+			c.effects = readString(in);
+			c.variator = readString(in);
+			mcf.entities.put(key, c);
+		}
+		count = readInt(in);
+		mcf.acoustics = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++)
+			mcf.acoustics.put(readString(in), readJson(in));
+		mcf.primitiveAcoustics = readStringMap(in);
+		return mcf;
+	}
+
+	private static void writeSoundMetadata(@Nonnull final DataOutputStream out, @Nonnull final SoundMetadataConfig c)
+			throws IOException {
+		writeString(out, c.category);
+		writeString(out, c.title);
+		writeStringList(out, c.credits);
+	}
+
+	@Nonnull
+	private static SoundMetadataConfig readSoundMetadata(@Nonnull final DataInputStream in) throws IOException {
+		final SoundMetadataConfig c = new SoundMetadataConfig();
+		c.category = readString(in);
+		c.title = readString(in);
+		c.credits = readStringList(in);
+		return c;
+	}
+
+	private static void writeBiome(@Nonnull final DataOutputStream out, @Nonnull final BiomeConfig c)
+			throws IOException {
+		writeString(out, c.biomeName);
+		writeString(out, c.conditions);
+		writeString(out, c.comment);
+		writeBoolean(out, c.hasPrecipitation);
+		writeBoolean(out, c.hasDust);
+		writeBoolean(out, c.hasAurora);
+		writeBoolean(out, c.hasFog);
+		writeString(out, c.dustColor);
+		writeString(out, c.fogColor);
+		writeFloat(out, c.fogDensity);
+		writeBoolean(out, c.soundReset);
+		writeInteger(out, c.spotSoundChance);
+		writeSounds(out, c.sounds);
+	}
+
+	@Nonnull
+	private static BiomeConfig readBiome(@Nonnull final DataInputStream in) throws IOException {
+		final BiomeConfig c = new BiomeConfig();
+		c.biomeName = readString(in);
+		c.conditions = readString(in);
+		c.comment = readString(in);
+		c.hasPrecipitation = readBoolean(in);
+		c.hasDust = readBoolean(in);
+		c.hasAurora = readBoolean(in);
+		c.hasFog = readBoolean(in);
+		c.dustColor = readString(in);
+		c.fogColor = readString(in);
+		c.fogDensity = readFloat(in);
+		c.soundReset = readBoolean(in);
+		c.spotSoundChance = readInteger(in);
+		c.sounds = readSounds(in);
+		return c;
+	}
+
+	private static void writeBlock(@Nonnull final DataOutputStream out, @Nonnull final BlockConfig c)
+			throws IOException {
+		writeStringList(out, c.blocks);
+		writeBoolean(out, c.soundReset);
+		writeBoolean(out, c.effectReset);
+		writeInteger(out, c.chance);
+		writeSounds(out, c.sounds);
+		writeInt(out, c.effects.size());
+		for (final EffectConfig e : c.effects) {
+			writeString(out, e.effect);
+			writeString(out, e.conditions);
+			writeInteger(out, e.chance);
+		}
+	}
+
+	@Nonnull
+	private static BlockConfig readBlock(@Nonnull final DataInputStream in) throws IOException {
+		final BlockConfig c = new BlockConfig();
+		c.blocks = readStringList(in);
+		c.soundReset = readBoolean(in);
+		c.effectReset = readBoolean(in);
+		c.chance = readInteger(in);
+		c.sounds = readSounds(in);
+		final int count = readInt(in);
+		c.effects = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final EffectConfig e = new EffectConfig();
+			e.effect = readString(in);
+			e.conditions = readString(in);
+			e.chance = readInteger(in);
+			c.effects.add(e);
+		}
+		return c;
+	}
+
+	private static void writeDimension(@Nonnull final DataOutputStream out, @Nonnull final DimensionConfig c)
+			throws IOException {
+		writeInteger(out, c.dimensionId);
+		writeString(out, c.name);
+		writeInteger(out, c.seaLevel);
+		writeInteger(out, c.skyHeight);
+		writeInteger(out, c.cloudHeight);
+		writeBoolean(out, c.hasHaze);
+		writeBoolean(out, c.hasAurora);
+		writeBoolean(out, c.hasWeather);
+		writeBoolean(out, c.hasFog);
+		writeBoolean(out, c.alwaysOutside);
+	}
+
+	@Nonnull
+	private static DimensionConfig readDimension(@Nonnull final DataInputStream in) throws IOException {
+		final DimensionConfig c = new DimensionConfig();
+		c.dimensionId = readInteger(in);
+		c.name = readString(in);
+		c.seaLevel = readInteger(in);
+		c.skyHeight = readInteger(in);
+		c.cloudHeight = readInteger(in);
+		c.hasHaze = readBoolean(in);
+		c.hasAurora = readBoolean(in);
+		c.hasWeather = readBoolean(in);
+		c.hasFog = readBoolean(in);
+		c.alwaysOutside = readBoolean(in);
+		return c;
+	}
+
+	private static void writeVariator(@Nonnull final DataOutputStream out, @Nonnull final VariatorConfig c)
+			throws IOException {
+		out.writeInt(c.immobileDuration);
+		out.writeBoolean(c.eventOnJump);
+		out.writeFloat(c.landHardDistanceMin);
+		out.writeFloat(c.speedToJumpAsMultifoot);
+		out.writeFloat(c.speedToRun);
+		out.writeFloat(c.stride);
+		out.writeFloat(c.strideStair);
+		out.writeFloat(c.strideLadder);
+		out.writeFloat(c.quadrupedMultiplier);
+		out.writeBoolean(c.playWander);
+		out.writeBoolean(c.quadruped);
+		out.writeBoolean(c.playJump);
+		out.writeFloat(c.distanceToCenter);
+		out.writeBoolean(c.hasFootprint);
+		out.writeInt(c.footprintStyle);
+		out.writeFloat(c.footprintScale);
+		out.writeFloat(c.volumeScale);
+	}
+
+	@Nonnull
+	private static VariatorConfig readVariator(@Nonnull final DataInputStream in) throws IOException {
+		final VariatorConfig c = new VariatorConfig();
+		c.immobileDuration = in.readInt();
+		c.eventOnJump = in.readBoolean();
+		c.landHardDistanceMin = in.readFloat();
+		c.speedToJumpAsMultifoot = in.readFloat();
+		c.speedToRun = in.readFloat();
+		c.stride = in.readFloat();
+		c.strideStair = in.readFloat();
+		c.strideLadder = in.readFloat();
+		c.quadrupedMultiplier = in.readFloat();
+		c.playWander = in.readBoolean();
+		c.quadruped = in.readBoolean();
+		c.playJump = in.readBoolean();
+		c.distanceToCenter = in.readFloat();
+		c.hasFootprint = in.readBoolean();
+		c.footprintStyle = in.readInt();
+		c.footprintScale = in.readFloat();
+		c.volumeScale = in.readFloat();
+		return c;
+	}
+
+	private static void writeSounds(@Nonnull final DataOutputStream out, @Nonnull final List<SoundConfig> sounds)
+			throws IOException {
+		writeInt(out, sounds.size());
+		for (final SoundConfig c : sounds) {
+			writeString(out, c.sound);
+			writeString(out, c.title);
+			writeString(out, c.conditions);
+			writeString(out, c.soundType);
+			writeString(out, c.soundCategory);
+			writeFloat(out, c.volume);
+			writeFloat(out, c.pitch);
+			writeInteger(out, c.weight);
+			writeBoolean(out, c.variable);
+			writeInteger(out, c.repeatDelayRandom);
+			writeInteger(out, c.repeatDelay);
+			writeBoolean(out, c.spotSound);
+			writeBoolean(out, c.step);
+		}
+	}
+
+	@Nonnull
+	private static List<SoundConfig> readSounds(@Nonnull final DataInputStream in) throws IOException {
+		final int count = readInt(in);
+		final List<SoundConfig> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final SoundConfig c = new SoundConfig();
+			c.sound = readString(in);
+			c.title = readString(in);
+			c.conditions = readString(in);
+			c.soundType = readString(in);
+			c.soundCategory = readString(in);
+			c.volume = readFloat(in);
+			c.pitch = readFloat(in);
+			c.weight = readInteger(in);
+			c.variable = readBoolean(in);
+			c.repeatDelayRandom = readInteger(in);
+			c.repeatDelay = readInteger(in);
+			c.spotSound = readBoolean(in);
+			c.step = readBoolean(in);
+			result.add(c);
+		}
+		return result;
+	}
+
+	// ---------------------------------------------------------------------
+	// Json elements (acoustic definitions are kept in raw form)
+
+	private static void writeJson(@Nonnull final DataOutputStream out, @Nullable final JsonElement element)
+			throws IOException {
+		if (element == null || element.isJsonNull()) {
+			out.writeByte(JSON_NULL);
+		} else if (element.isJsonArray()) {
+			final JsonArray array = element.getAsJsonArray();
+			out.writeByte(JSON_ARRAY);
+			writeInt(out, array.size());
+			for (final JsonElement e : array)
+				writeJson(out, e);
+		} else if (element.isJsonObject()) {
+			final JsonObject obj = element.getAsJsonObject();
+			out.writeByte(JSON_OBJECT);
+			writeInt(out, obj.entrySet().size());
+			for (final Entry<String, JsonElement> e : obj.entrySet()) {
+				writeString(out, e.getKey());
+				writeJson(out, e.getValue());
+			}
+		} else {
+			final JsonPrimitive prim = element.getAsJsonPrimitive();
+			if (prim.isBoolean()) {
+				out.writeByte(JSON_BOOLEAN);
+				out.writeBoolean(prim.getAsBoolean());
+			} else if (prim.isNumber()) {
+				out.writeByte(JSON_NUMBER);
+				writeString(out, prim.getAsString());
+			} else {
+				out.writeByte(JSON_STRING);
+				writeString(out, prim.getAsString());
+			}
+		}
+	}
+
+	@Nonnull
+	private static JsonElement readJson(@Nonnull final DataInputStream in) throws IOException {
+		final byte type = in.readByte();
+		switch (type) {
+		case JSON_NULL:
+			return JsonNull.INSTANCE;
+		case JSON_BOOLEAN:
+			return new JsonPrimitive(in.readBoolean());
+		case JSON_NUMBER:
+			return new JsonPrimitive(new BigDecimal(readString(in)));
+		case JSON_STRING:
+			return new JsonPrimitive(readString(in));
+		case JSON_ARRAY: {
+			final int count = readInt(in);
+			final JsonArray array = new JsonArray();
+			for (int i = 0; i < count; i++)
+				array.add(readJson(in));
+			return array;
+		}
+		case JSON_OBJECT: {
+			final int count = readInt(in);
+			final JsonObject obj = new JsonObject();
+			for (int i = 0; i < count; i++)
+				obj.add(readString(in), readJson(in));
+			return obj;
+		}
+		default:
+			throw new IOException("Unknown Json element type " + type);
+		}
+	}
+
+	// ---------------------------------------------------------------------
+	// Primitives. Nullable values are prefixed with a presence flag.
+
+	private static void writeInt(@Nonnull final DataOutputStream out, final int value) throws IOException {
+		out.writeInt(value);
+	}
+
+	private static int readInt(@Nonnull final DataInputStream in) throws IOException {
+		final int value = in.readInt();
+		if (value < 0)
+			throw new IOException("Negative count in config cache");
+		return value;
+	}
+
+	private static void writeString(@Nonnull final DataOutputStream out, @Nullable final String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	@Nullable
+	private static String readString(@Nonnull final DataInputStream in) throws IOException {
+		final int len = in.readInt();
+		if (len < 0)
+			return null;
+		final byte[] bytes = new byte[len];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeBoolean(@Nonnull final DataOutputStream out, @Nullable final Boolean value)
+			throws IOException {
+		out.writeByte(value == null ? -1 : (value.booleanValue() ? 1 : 0));
+	}
+
+	@Nullable
+	private static Boolean readBoolean(@Nonnull final DataInputStream in) throws IOException {
+		final byte value = in.readByte();
+		return value < 0 ? null : Boolean.valueOf(value != 0);
+	}
+
+	private static void writeInteger(@Nonnull final DataOutputStream out, @Nullable final Integer value)
+			throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeInt(value.intValue());
+	}
+
+	@Nullable
+	private static Integer readInteger(@Nonnull final DataInputStream in) throws IOException {
+		return in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+	}
+
+	private static void writeFloat(@Nonnull final DataOutputStream out, @Nullable final Float value)
+			throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeFloat(value.floatValue());
+	}
+
+	@Nullable
+	private static Float readFloat(@Nonnull final DataInputStream in) throws IOException {
+		return in.readBoolean() ? Float.valueOf(in.readFloat()) : null;
+	}
+
+	private static void writeStringList(@Nonnull final DataOutputStream out, @Nonnull final List<String> list)
+			throws IOException {
+		writeInt(out, list.size());
+		for (final String s : list)
+			writeString(out, s);
+	}
+
+	@Nonnull
+	private static List<String> readStringList(@Nonnull final DataInputStream in) throws IOException {
+		final int count = readInt(in);
+		final List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			result.add(readString(in));
+		return result;
+	}
+
+	private static void writeStringMap(@Nonnull final DataOutputStream out, @Nonnull final Map<String, String> map)
+			throws IOException {
+		writeInt(out, map.size());
+		for (final Entry<String, String> e : map.entrySet()) {
+			writeString(out, e.getKey());
+			writeString(out, e.getValue());
+		}
+	}
+
+	@Nonnull
+	private static Map<String, String> readStringMap(@Nonnull final DataInputStream in) throws IOException {
+		final int count = readInt(in);
+		final Map<String, String> result = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++)
+			result.put(readString(in), readString(in));
+		return result;
+	}
+}
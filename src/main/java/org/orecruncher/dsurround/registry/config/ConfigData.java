@@ -50,6 +50,7 @@ import org.orecruncher.dsurround.registry.config.Profiles.ProfileScript;
 import org.orecruncher.dsurround.registry.config.packs.IMyResourcePack;
 import org.orecruncher.dsurround.registry.config.packs.ResourcePacks;
 
+import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
@@ -263,6 +264,48 @@ public final class ConfigData implements Iterable<ModConfiguration> {
 		return new ConfigData(bits.array);
 	}
 
+	/**
+	 * Decodes the compressed configuration data into a list of ModConfiguration
+	 * objects. The blob is inflated and parsed a single time so the result can be
+	 * handed to each registry rather than having each registry do the work again.
+	 * Entries that fail to parse are skipped. If enabled the result is obtained
+	 * from the on disk cache when the configuration has not changed.
+	 *
+	 * @return Immutable list of ModConfiguration objects
+	 */
+	@Nonnull
+	public List<ModConfiguration> decode() {
+		if (!ModOptions.general.enableConfigCache)
+			return parse();
+
+		// If the bits have not changed since the last time the cache was written
+		// the parsed results can be pulled from there rather than going through Gson.
+		final byte[] key = ConfigCache.hash(this.crunchyBits);
+		List<ModConfiguration> result = ConfigCache.read(key);
+		if (result == null) {
+			result = parse();
+			ConfigCache.write(key, result);
+		} else {
+			ModBase.log().debug("Configuration restored from cache");
+		}
+		return result;
+	}
+
+	@Nonnull
+	private List<ModConfiguration> parse() {
+		final ImmutableList.Builder<ModConfiguration> builder = ImmutableList.builder();
+		try (final MCFIterator itr = new MCFIterator(this.crunchyBits)) {
+			while (itr.hasNext()) {
+				final ModConfiguration mcf = itr.next();
+				if (mcf != null)
+					builder.add(mcf);
+			}
+		} catch (@Nonnull final Throwable t) {
+			ModBase.log().error("Unable to decode ModConfiguration data", t);
+		}
+		return builder.build();
+	}
+
 	@Override
 	@Nonnull
 	public Iterator<ModConfiguration> iterator() {
@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.orecruncher.dsurround.ModBase;
 import org.orecruncher.dsurround.ModInfo;
@@ -97,19 +98,15 @@ public class EffectRegistry extends Registry {
 	@Override
 	protected void postInit() {
 		// Need to process all the entities registered with Forge to see if they
-		// are in our list. If they aren't the list is scanned looking for
-		// hereditary matches.
+		// are in our list. If they aren't the superclass chain is walked looking
+		// for the nearest ancestor that has been configured.
 		for (final ResourceLocation r : EntityList.getEntityNameList()) {
 			final Class<? extends Entity> clazz = EntityList.getClass(r);
 			if (clazz != null) {
 				if (!this.effects.containsKey(clazz)) {
-					// Not found. Scan our list looking for those that can be assigned
-					for (Entry<Class<? extends Entity>, EntityEffectInfo> e : this.effects.entrySet()) {
-						if (e.getKey().isAssignableFrom(clazz)) {
-							this.effects.put(clazz, e.getValue());
-							break;
-						}
-					}
+					final EntityEffectInfo info = findAncestor(clazz);
+					if (info != null)
+						this.effects.put(clazz, info);
 				}
 			} else {
 				// This is possible for entity lightening bolt. May show up for other
@@ -120,6 +117,22 @@ public class EffectRegistry extends Registry {
 
 	}
 
+	/**
+	 * Walks the superclass chain of the entity class looking for the closest
+	 * ancestor that has effect info. Entities that have already been resolved
+	 * carry the info of their nearest configured ancestor so they short circuit
+	 * the walk for their descendants.
+	 */
+	@Nullable
+	private EntityEffectInfo findAncestor(@Nonnull final Class<? extends Entity> clazz) {
+		for (Class<?> c = clazz.getSuperclass(); c != null && Entity.class.isAssignableFrom(c); c = c.getSuperclass()) {
+			final EntityEffectInfo info = this.effects.get(c);
+			if (info != null)
+				return info;
+		}
+		return null;
+	}
+
 	@Override
 	protected void complete() {
 		if (ModOptions.logging.enableDebugLogging) {
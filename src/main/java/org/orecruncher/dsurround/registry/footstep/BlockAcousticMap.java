@@ -32,7 +32,7 @@ import javax.annotation.Nullable;
 import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
 import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
 import org.orecruncher.dsurround.registry.blockstate.BlockStateMatcher;
-import org.orecruncher.lib.collections.ObjectArray;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateMatcherMap;
 
 import com.google.common.base.MoreObjects;
 
@@ -57,8 +57,13 @@ public final class BlockAcousticMap {
 
 	protected final Map<IBlockState, IAcoustic[]> cache = new Reference2ObjectOpenHashMap<>();
 
+	// Dense lookup table indexed by block state ID. Populated once the map has
+	// been fully configured. States that do not own their ID (i.e. states that
+	// are not derived from metadata) continue to go through the cache.
+	protected IAcoustic[][] stateTable = null;
+
 	protected final IAcousticResolver resolver;
-	protected final Map<Block, ObjectArray<BlockMapEntry>> data = new Reference2ObjectOpenHashMap<>();
+	protected final BlockStateMatcherMap<IAcoustic[]> data = new BlockStateMatcherMap<>();
 
 	/**
 	 * CTOR for building a map that has no resolver and performs special lookups
@@ -75,42 +80,50 @@ public final class BlockAcousticMap {
 
 	@Nonnull
 	protected IAcoustic[] cacheMiss(@Nonnull final IBlockState state) {
+		final IAcoustic[] result = findConfigured(state);
+		return result != null ? result : resolve(state);
+	}
+
+	/**
+	 * Obtains the acoustics configured for the state, if any. The configured data
+	 * is not modified once the map is populated so this is safe to call
+	 * concurrently.
+	 */
+	@Nullable
+	protected IAcoustic[] findConfigured(@Nonnull final IBlockState state) {
+		// Later registrations override earlier ones
+		return this.data.findLatest(state);
+	}
+
+	/**
+	 * Obtains the acoustics for a state that has no configured entry by way of the
+	 * resolver. The resolver may update shared state so it is only to be called
+	 * from the loading thread.
+	 */
+	@Nonnull
+	protected IAcoustic[] resolve(@Nonnull final IBlockState state) {
 		IAcoustic[] result = null;
-		final ObjectArray<BlockMapEntry> entries = this.data.get(state.getBlock());
-		if (entries != null) {
-			final BlockStateMatcher matcher = BlockStateMatcher.create(state);
-			result = find(entries, matcher);
-			if (result != null)
-				return result;
-			if (matcher.hasSubtypes())
-				result = find(entries, BlockStateMatcher.asGeneric(state));
-			if (result != null)
-				return result;
-		}
 		if (this.resolver != null)
 			result = this.resolver.resolve(state);
 		return MoreObjects.firstNonNull(result, AcousticRegistry.EMPTY);
 	}
 
-	@Nullable
-	private IAcoustic[] find(@Nonnull final ObjectArray<BlockMapEntry> entries,
-			@Nonnull final BlockStateMatcher matcher) {
-		// Search backwards. In general highly specified states are at
-		// the end of the array.
-		for (int i = entries.size() - 1; i >= 0; i--) {
-			final BlockMapEntry e = entries.get(i);
-			if (matcher.equals(e.matcher))
-				return e.acoustics;
-		}
-		return null;
-	}
-
 	/**
 	 * Obtain acoustic information for a block. If the block has variants (subtypes)
 	 * it will fall back to searching for a generic if a specific one is not found.
 	 */
 	@Nonnull
 	public IAcoustic[] getBlockAcoustics(@Nonnull final IBlockState state) {
+		final IAcoustic[][] table = this.stateTable;
+		if (table != null) {
+			final int id = Block.getStateId(state);
+			if (id >= 0 && id < table.length) {
+				final IAcoustic[] result = table[id];
+				if (result != null && Block.BLOCK_STATE_IDS.getByValue(id) == state)
+					return result;
+			}
+		}
+
 		IAcoustic[] result = this.cache.get(state);
 		if (result == null) {
 			result = cacheMiss(state);
@@ -120,25 +133,24 @@ public final class BlockAcousticMap {
 	}
 
 	public void put(@Nonnull final BlockStateMatcher info, @Nonnull final IAcoustic[] acoustics) {
-		ObjectArray<BlockMapEntry> entry = this.data.get(info.getBlock());
-		if (entry == null) {
-			this.data.put(info.getBlock(), entry = new ObjectArray<>(2));
-		}
-		entry.add(new BlockMapEntry(info, acoustics));
+		this.data.put(info, acoustics);
+	}
+
+	/**
+	 * Installs a table of resolved acoustics indexed by state ID. Should be called
+	 * after the map has been fully populated so that subsequent lookups are a
+	 * simple array read rather than a hash lookup or a scan of the configured
+	 * entries. Slots are only to be filled for states that own their ID.
+	 *
+	 * @param table Acoustics indexed by state ID
+	 */
+	public void freeze(@Nonnull final IAcoustic[][] table) {
+		this.stateTable = table;
 	}
 
 	public void clear() {
 		this.data.clear();
 		this.cache.clear();
-	}
-
-	private static class BlockMapEntry {
-		public final BlockStateMatcher matcher;
-		public final IAcoustic[] acoustics;
-
-		public BlockMapEntry(@Nonnull final BlockStateMatcher matcher, @Nonnull final IAcoustic[] acoustics) {
-			this.matcher = matcher;
-			this.acoustics = acoustics;
-		}
+		this.stateTable = null;
 	}
 }
\ No newline at end of file
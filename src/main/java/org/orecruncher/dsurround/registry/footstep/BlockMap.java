@@ -26,6 +26,7 @@ package org.orecruncher.dsurround.registry.footstep;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -269,6 +270,23 @@ public class BlockMap {
 		}
 	}
 
+	/**
+	 * Primary acoustic map. Exposed so the registry can build the dense state
+	 * lookup tables once configuration has finished.
+	 */
+	@Nonnull
+	BlockAcousticMap getMetaMap() {
+		return this.metaMap;
+	}
+
+	/**
+	 * Substrate acoustic maps that have been configured.
+	 */
+	@Nonnull
+	Collection<BlockAcousticMap> getSubstrateMaps() {
+		return this.substrateMap.values();
+	}
+
 	public void clear() {
 		this.metaMap.clear();
 		this.substrateMap.clear();
@@ -0,0 +1,206 @@
+/*
+ * This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.footstep;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnull;
+
+import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
+import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
+import org.orecruncher.lib.collections.ObjectArray;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Classifies every registered block state in a single pass. For each state the
+ * acoustics of the primary and substrate maps are resolved into dense tables
+ * indexed by state ID, and the state is checked for missing acoustics and
+ * footprint eligibility. The ID range is split into partitions that can be
+ * processed concurrently; each partition only writes to its own slots of the
+ * preallocated result arrays. Work that touches shared state (the acoustic
+ * resolver) is done afterwards on the calling thread.
+ */
+@SideOnly(Side.CLIENT)
+final class BlockStateClassifier {
+
+	// Number of state IDs handled by a single partition
+	private static final int PARTITION_SIZE = 4096;
+
+	private static final byte FOOTPRINT = 1;
+
+	private final BlockAcousticMap[] maps;
+	private final Predicate<IBlockState> footprint;
+
+	// States that own their ID, indexed by ID
+	private IBlockState[] states;
+	// States that do not own their ID. They go through the map cache.
+	private final ObjectArray<IBlockState> aliased = new ObjectArray<>();
+
+	private IAcoustic[][][] tables;
+	private byte[] flags;
+
+	private final Set<IBlockState> missingAcoustics = new ReferenceOpenHashSet<>();
+	private final Set<IBlockState> footprintStates = new ReferenceOpenHashSet<>();
+
+	/**
+	 * @param map       Fully configured block map to classify against
+	 * @param footprint Test for states that should be registered for footprints.
+	 *                  May be invoked concurrently.
+	 */
+	public BlockStateClassifier(@Nonnull final BlockMap map, @Nonnull final Predicate<IBlockState> footprint) {
+		this(getMaps(map), footprint);
+	}
+
+	/**
+	 * @param maps      Acoustic maps to classify against. The first is the
+	 *                  primary map used to determine missing acoustics.
+	 * @param footprint Test for states that should be registered for footprints.
+	 *                  May be invoked concurrently.
+	 */
+	BlockStateClassifier(@Nonnull final BlockAcousticMap[] maps, @Nonnull final Predicate<IBlockState> footprint) {
+		this.maps = maps;
+		this.footprint = footprint;
+	}
+
+	@Nonnull
+	private static BlockAcousticMap[] getMaps(@Nonnull final BlockMap map) {
+		final Collection<BlockAcousticMap> substrates = map.getSubstrateMaps();
+		final BlockAcousticMap[] result = new BlockAcousticMap[substrates.size() + 1];
+		result[0] = map.getMetaMap();
+		int idx = 1;
+		for (final BlockAcousticMap m : substrates)
+			result[idx++] = m;
+		return result;
+	}
+
+	/**
+	 * Performs the classification and installs the dense lookup tables into the
+	 * acoustic maps.
+	 *
+	 * @param parallel Whether partitions can be processed on worker threads
+	 */
+	public void classify(final boolean parallel) {
+		gatherStates();
+
+		final int partitions = (this.states.length + PARTITION_SIZE - 1) / PARTITION_SIZE;
+		final IntStream stream = IntStream.range(0, partitions);
+		(parallel ? stream.parallel() : stream).forEach(this::classifyPartition);
+
+		// Back fill states that do not have a configured entry. The resolver
+		// caches compiled acoustics so this happens on the calling thread.
+		for (int id = 0; id < this.states.length; id++) {
+			final IBlockState state = this.states[id];
+			if (state == null)
+				continue;
+			for (int i = 0; i < this.maps.length; i++) {
+				if (this.tables[i][id] == null)
+					this.tables[i][id] = this.maps[i].resolve(state);
+			}
+			if (this.tables[0][id] == AcousticRegistry.EMPTY)
+				this.missingAcoustics.add(state);
+			if ((this.flags[id] & FOOTPRINT) != 0)
+				this.footprintStates.add(state);
+		}
+
+		for (int i = 0; i < this.maps.length; i++)
+			this.maps[i].freeze(this.tables[i]);
+
+		for (int i = 0; i < this.aliased.size(); i++) {
+			final IBlockState state = this.aliased.get(i);
+			if (this.maps[0].getBlockAcoustics(state) == AcousticRegistry.EMPTY)
+				this.missingAcoustics.add(state);
+			if (this.footprint.test(state))
+				this.footprintStates.add(state);
+		}
+
+		this.tables = null;
+		this.flags = null;
+	}
+
+	/**
+	 * Block states that do not have acoustics configured and could not be resolved
+	 * by primitives.
+	 */
+	@Nonnull
+	public Set<IBlockState> getMissingAcoustics() {
+		return this.missingAcoustics;
+	}
+
+	/**
+	 * Block states that passed the footprint test.
+	 */
+	@Nonnull
+	public Set<IBlockState> getFootprintStates() {
+		return this.footprintStates;
+	}
+
+	private void gatherStates() {
+		final ObjectArray<IBlockState> owners = new ObjectArray<>(4096);
+		int maxId = -1;
+		for (final Block block : ForgeRegistries.BLOCKS) {
+			for (final IBlockState state : block.getBlockState().getValidStates()) {
+				final int id = Block.getStateId(state);
+				if (id >= 0 && Block.BLOCK_STATE_IDS.getByValue(id) == state) {
+					owners.add(state);
+					maxId = Math.max(maxId, id);
+				} else {
+					this.aliased.add(state);
+				}
+			}
+		}
+
+		this.states = new IBlockState[maxId + 1];
+		for (int i = 0; i < owners.size(); i++) {
+			final IBlockState state = owners.get(i);
+			this.states[Block.getStateId(state)] = state;
+		}
+
+		this.tables = new IAcoustic[this.maps.length][maxId + 1][];
+		this.flags = new byte[maxId + 1];
+	}
+
+	private void classifyPartition(final int partition) {
+		final int start = partition * PARTITION_SIZE;
+		final int end = Math.min(start + PARTITION_SIZE, this.states.length);
+		for (int id = start; id < end; id++) {
+			final IBlockState state = this.states[id];
+			if (state == null)
+				continue;
+			for (int i = 0; i < this.maps.length; i++)
+				this.tables[i][id] = this.maps[i].findConfigured(state);
+			if (this.footprint.test(state))
+				this.flags[id] |= FOOTPRINT;
+		}
+	}
+}
@@ -26,7 +26,6 @@ package org.orecruncher.dsurround.registry.footstep;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 
@@ -75,7 +74,6 @@ import net.minecraft.item.ItemBlockSpecial;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.SoundEvent;
-import net.minecraftforge.fml.common.registry.ForgeRegistries;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import net.minecraftforge.oredict.OreDictionary;
@@ -110,7 +108,7 @@ public final class FootstepsRegistry extends Registry {
 	public IAcoustic[] SPLASH;
 
 	public FootstepsRegistry() {
-		super("Footsteps Registry");
+		super("Footsteps Registry", RegistryManager.ACOUSTICS);
 	}
 
 	@Override
@@ -172,44 +170,28 @@ public final class FootstepsRegistry extends Registry {
 		this.playerQuadrupedVariator = getVariator(
 				ModOptions.sound.firstPersonFootstepCadence ? "quadrupedSlow" : "quadruped");
 
-		// Generate a list of IBlockState objects for all blocks registered
-		// with Forge.
-		//@formatter:off
-		final Set<IBlockState> blockStates =
-			StreamSupport.stream(ForgeRegistries.BLOCKS.spliterator(), false)
-				.map(block -> block.getBlockState().getValidStates())
-				.flatMap(Collection::stream)
-				.collect(Collectors.toSet());
-		//@formatter:on
-
-		// Scan the block list looking for any block states that do not have sounds
-		// definitions supplied by configuration files or by primitives. This scan
-		// has the side effect of priming the caches.
-		//@formatter:off
-		this.missingAcoustics =
-			blockStates.stream()
-				.filter(bs -> !getBlockMap().hasAcoustics(bs))
-				.collect(Collectors.toSet());
-		//@formatter:on
+		// Classify all the block states registered with Forge in a single pass.
+		// This resolves the acoustics for all the states up front so that lookups
+		// during play are a simple table read, substrates included. It also
+		// identifies any block states that do not have sounds definitions supplied
+		// by configuration files or by primitives, and any states that could have
+		// footprints associated.
+		final BlockStateClassifier classifier = new BlockStateClassifier(getBlockMap(),
+				bs -> bs.getMaterial().blocksMovement() && !hasFootprint(bs) && hasFootprintSound(bs));
+		classifier.classify(ModOptions.general.enableParallelRegistryLoad);
+		this.missingAcoustics = classifier.getMissingAcoustics();
+		this.FOOTPRINT_STATES.addAll(classifier.getFootprintStates());
+	}
 
-		// Identify any IBlockStates that could have footprints associated and
-		// register them if necessary.
-		//@formatter:off
-		blockStates
-			.stream()
-			.filter(bs -> bs.getMaterial().blocksMovement()	&& !hasFootprint(bs))
-			.filter(bs -> {
-				final SoundType sound = MCHelper.getSoundType(bs);
-				if (sound != null) {
-					final SoundEvent event = sound.getStepSound();
-					final ResourceLocation resource = event.getSoundName();
-					final String soundName = resource.toString();
-					return FOOTPRINT_SOUND_PROFILE.contains(soundName);
-				}
-				return false;
-			})
-			.forEach(bs -> this.FOOTPRINT_STATES.add(bs));
-		//@formatter:on
+	private static boolean hasFootprintSound(@Nonnull final IBlockState state) {
+		final SoundType sound = MCHelper.getSoundType(state);
+		if (sound != null) {
+			final SoundEvent event = sound.getStepSound();
+			final ResourceLocation resource = event.getSoundName();
+			final String soundName = resource.toString();
+			return FOOTPRINT_SOUND_PROFILE.contains(soundName);
+		}
+		return false;
 	}
 
 	@Override
@@ -29,7 +29,6 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -44,6 +43,7 @@ import org.orecruncher.dsurround.registry.item.compat.ItemDataProducer;
 import org.orecruncher.lib.ItemStackUtil;
 import org.orecruncher.lib.MCHelper;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.init.Items;
 import net.minecraft.item.Item;
@@ -70,6 +70,7 @@ public final class ItemRegistry extends Registry {
 
 	private EnumMap<ItemClass, Set<Class<?>>> classMap;
 	private Map<Item, IItemData> items;
+	private Map<Class<?>, ItemClass> classCache;
 
 	public ItemRegistry() {
 		super("Item Registry");
@@ -79,6 +80,7 @@ public final class ItemRegistry extends Registry {
 	protected void preInit() {
 		this.classMap = new EnumMap<>(ItemClass.class);
 		this.items = new IdentityHashMap<>(MAP_CAPACITY);
+		this.classCache = new Reference2ObjectOpenHashMap<>(MAP_CAPACITY);
 		this.NONE_DATA = SimpleItemData.CACHE.get(ItemClass.NONE);
 
 		Item.REGISTRY.iterator().forEachRemaining(item -> ItemUtils.setItemData(item, this.NONE_DATA));
@@ -103,8 +105,8 @@ public final class ItemRegistry extends Registry {
 		// matching.
 		for (Item item : Item.REGISTRY) {
 			if (!this.items.containsKey(item)) {
-				final ItemClass ic = resolveClass(item);
-				if (ic != ItemClass.NONE) {
+				final ItemClass ic = resolveClass(item.getClass());
+				if (ic != null && ic != ItemClass.NONE) {
 					this.items.put(item, ItemDataProducer.create(item, ic));
 				}
 			}
@@ -116,33 +118,49 @@ public final class ItemRegistry extends Registry {
 		// Free up resources that are no longer needed
 		this.items = null;
 		this.classMap = null;
+		this.classCache = null;
 	}
 
-	private ItemClass resolveClass(@Nonnull final Item item) {
+	/**
+	 * Determines the ItemClass for a Java class by walking its superclass and
+	 * interface hierarchy. If the class, or any of its ancestors, is configured
+	 * for more than one ItemClass the one declared first in the enum wins. Results
+	 * are memoized so that each distinct class is only examined once, and the
+	 * results for ancestors are shared by all their descendants.
+	 *
+	 * @param clazz Class to resolve
+	 * @return The ItemClass for the class, or null if there isn't one
+	 */
+	@Nullable
+	private ItemClass resolveClass(@Nonnull final Class<?> clazz) {
+		if (this.classCache.containsKey(clazz))
+			return this.classCache.get(clazz);
+
+		ItemClass result = null;
 		for (final ItemClass ic : ItemClass.values()) {
-			final Set<Class<?>> itemSet = this.classMap.get(ic);
-			if (doesBelong(itemSet, item))
-				return ic;
+			if (this.classMap.get(ic).contains(clazz)) {
+				result = ic;
+				break;
+			}
 		}
-		return ItemClass.NONE;
-	}
-
-	private boolean doesBelong(@Nonnull final Set<Class<?>> itemSet, @Nonnull final Item item) {
 
-		final Class<?> itemClass = item.getClass();
+		final Class<?> parent = clazz.getSuperclass();
+		if (parent != null)
+			result = preferred(result, resolveClass(parent));
+		for (final Class<?> i : clazz.getInterfaces())
+			result = preferred(result, resolveClass(i));
 
-		// If the item is in the collection already, return
-		if (itemSet.contains(itemClass))
-			return true;
+		this.classCache.put(clazz, result);
+		return result;
+	}
 
-		// Need to iterate to see if an item is a sub-class of an existing
-		// item in the list.
-		final Optional<Class<?>> result = itemSet.stream().filter(c -> c.isAssignableFrom(itemClass)).findFirst();
-		if (result.isPresent()) {
-			itemSet.add(itemClass);
-			return true;
-		}
-		return false;
+	@Nullable
+	private static ItemClass preferred(@Nullable final ItemClass a, @Nullable final ItemClass b) {
+		if (a == null)
+			return b;
+		if (b == null)
+			return a;
+		return a.ordinal() <= b.ordinal() ? a : b;
 	}
 
 	private void process(@Nullable final List<String> items, @Nonnull final String itemClass) {
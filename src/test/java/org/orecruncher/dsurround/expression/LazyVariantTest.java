@@ -0,0 +1,145 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.orecruncher.lib.expression.Variant;
+
+public class LazyVariantTest {
+
+	private final int[] calls = new int[3];
+	private boolean raining;
+	private boolean day = true;
+
+	private LazyVariant[] variables;
+	private ConditionCompiler compiler;
+
+	@Before
+	public void setup() {
+		this.variables = new LazyVariant[] { new LazyVariant.LazyBoolean("weather.isRaining", () -> {
+			this.calls[0]++;
+			return this.raining;
+		}), new LazyVariant.LazyBoolean("diurnal.isDay", () -> {
+			this.calls[1]++;
+			return this.day;
+		}), new LazyVariant.LazyNumber("player.health", () -> {
+			this.calls[2]++;
+			return 20F;
+		}) };
+
+		final Map<String, Variant> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (final LazyVariant v : this.variables)
+			map.put(v.getName(), v);
+		this.compiler = new ConditionCompiler(map);
+	}
+
+	// Same as what ExpressionEngine.reset() does to each variable
+	private void reset() {
+		for (final LazyVariant v : this.variables)
+			v.update();
+	}
+
+	@Nonnull
+	private ICondition compile(@Nonnull final String exp) {
+		final ICondition result = this.compiler.compile(exp);
+		assertNotNull(exp, result);
+		return result;
+	}
+
+	@Test
+	public void unreferencedNeverEvaluated() {
+		final ICondition a = compile("weather.isRaining || diurnal.isDay");
+		final ICondition b = compile("!weather.isRaining");
+
+		for (int i = 0; i < 10; i++) {
+			reset();
+			assertTrue(a.check());
+			assertTrue(b.check());
+		}
+
+		assertEquals(0, this.calls[2]);
+	}
+
+	@Test
+	public void evaluatedOncePerReset() {
+		final ICondition a = compile("weather.isRaining || diurnal.isDay");
+		final ICondition b = compile("diurnal.isDay && !weather.isRaining");
+
+		for (int i = 1; i <= 5; i++) {
+			reset();
+			a.check();
+			b.check();
+			a.check();
+			assertEquals(i, this.calls[0]);
+			assertEquals(i, this.calls[1]);
+		}
+	}
+
+	@Test
+	public void nothingEvaluatedWithoutChecks() {
+		compile("weather.isRaining && diurnal.isDay && player.health > 10");
+		for (int i = 0; i < 5; i++)
+			reset();
+		assertEquals(0, this.calls[0] + this.calls[1] + this.calls[2]);
+	}
+
+	@Test
+	public void changeSeenAfterReset() {
+		final ICondition a = compile("diurnal.isDay && !weather.isRaining");
+		reset();
+		assertTrue(a.check());
+
+		this.raining = true;
+		assertTrue(a.check());
+		reset();
+		assertFalse(a.check());
+
+		this.raining = false;
+		this.day = false;
+		reset();
+		assertFalse(a.check());
+	}
+
+	@Test
+	public void heldNeverEvaluated() {
+		final ICondition a = compile("weather.isRaining || diurnal.isDay");
+		for (final LazyVariant v : this.variables)
+			v.hold();
+		for (int i = 0; i < 5; i++) {
+			reset();
+			assertFalse(a.check());
+		}
+		assertEquals(0, this.calls[0] + this.calls[1] + this.calls[2]);
+	}
+}
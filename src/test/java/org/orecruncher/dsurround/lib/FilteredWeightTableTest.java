@@ -0,0 +1,142 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.orecruncher.dsurround.lib;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.orecruncher.lib.WeightTable;
+import org.orecruncher.lib.WeightTable.IEntrySource;
+import org.orecruncher.lib.WeightTable.IItem;
+
+public class FilteredWeightTableTest {
+
+	private static final int TRACKED = 8;
+	private static final int UNTRACKED = Long.SIZE + 1;
+	private static final int SELECTIONS = 100;
+
+	// Stands in for a SoundEffect whose condition is switched by the test
+	private static final class Entry implements IEntrySource<Entry>, IItem<Entry> {
+
+		boolean active;
+
+		@Override
+		public boolean matches() {
+			return this.active;
+		}
+
+		@Override
+		public IItem<Entry> getEntry() {
+			return this;
+		}
+
+		@Override
+		public Entry getItem() {
+			return this;
+		}
+
+		@Override
+		public int getWeight() {
+			return 10;
+		}
+	}
+
+	@Nonnull
+	private static Entry[] entries(final int count) {
+		final Entry[] result = new Entry[count];
+		for (int i = 0; i < count; i++)
+			result[i] = new Entry();
+		return result;
+	}
+
+	@Test
+	public void tableReusedWhileMatchesUnchanged() {
+		final Entry[] entries = entries(TRACKED);
+		final FilteredWeightTable<Entry> table = new FilteredWeightTable<>(entries);
+		entries[1].active = true;
+		entries[4].active = true;
+
+		assertNotNull(table.next());
+		final WeightTable<Entry> first = table.getTable();
+		assertNotNull(first);
+		for (int i = 0; i < SELECTIONS; i++) {
+			final Entry e = table.next();
+			assertTrue(e == entries[1] || e == entries[4]);
+			assertSame(first, table.getTable());
+		}
+	}
+
+	@Test
+	public void tableRebuiltWhenMatchesChange() {
+		final Entry[] entries = entries(TRACKED);
+		final FilteredWeightTable<Entry> table = new FilteredWeightTable<>(entries);
+		entries[2].active = true;
+
+		assertSame(entries[2], table.next());
+		final WeightTable<Entry> first = table.getTable();
+
+		entries[2].active = false;
+		entries[6].active = true;
+		assertSame(entries[6], table.next());
+		final WeightTable<Entry> second = table.getTable();
+		assertNotSame(first, second);
+
+		assertSame(entries[6], table.next());
+		assertSame(second, table.getTable());
+	}
+
+	@Test
+	public void nothingMatches() {
+		final FilteredWeightTable<Entry> table = new FilteredWeightTable<>(entries(TRACKED));
+		for (int i = 0; i < SELECTIONS; i++)
+			assertNull(table.next());
+		assertNull(table.getTable());
+	}
+
+	@Test
+	public void untrackedFallsBackToFiltering() {
+		final Entry[] entries = entries(UNTRACKED);
+		final FilteredWeightTable<Entry> table = new FilteredWeightTable<>(entries);
+
+		assertNull(table.next());
+
+		// Only the entry past the last trackable bit matches
+		entries[UNTRACKED - 1].active = true;
+		for (int i = 0; i < SELECTIONS; i++)
+			assertSame(entries[UNTRACKED - 1], table.next());
+
+		entries[UNTRACKED - 1].active = false;
+		entries[0].active = true;
+		for (int i = 0; i < SELECTIONS; i++)
+			assertSame(entries[0], table.next());
+
+		// No table is retained when the entries cannot be tracked
+		assertNull(table.getTable());
+	}
+}
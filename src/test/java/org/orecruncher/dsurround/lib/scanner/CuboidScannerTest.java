@@ -0,0 +1,171 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.lib.scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Checks that a full scan run against a snapshot on the worker thread reports
+ * the same blocks as a synchronous scan of the live world, including when the
+ * world changes while the pass is in flight.
+ */
+public class CuboidScannerTest {
+
+	private static final BlockPos CENTER = new BlockPos(8, 40, 8);
+	private static final int RANGE = 16;
+	private static final long TIMEOUT = 30000L;
+
+	@BeforeClass
+	public static void bootstrap() {
+		Bootstrap.register();
+	}
+
+	@Test
+	public void snapshotMatchesSynchronous() throws InterruptedException {
+		final SyntheticWorld world = new SyntheticWorld(1L);
+		final Long2ObjectOpenHashMap<IBlockState> expected = scan(world, false);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, scan(world, true));
+	}
+
+	@Test
+	public void drainRereadsWorld() throws InterruptedException {
+		final SyntheticWorld world = new SyntheticWorld(2L);
+		final Long2ObjectOpenHashMap<IBlockState> before = scan(world, false);
+		assertFalse(before.isEmpty());
+
+		// The first update captures the snapshot and submits the pass. Changing
+		// the world afterwards is only visible to the drain.
+		final TestScanner scanner = new TestScanner(new SyntheticWorld.Locus(world, CENTER));
+		scanner.setAsync(true);
+		scanner.update();
+
+		final IBlockState stone = Blocks.STONE.getDefaultState();
+		int i = 0;
+		for (final long pos : before.keySet())
+			if ((i++ & 1) == 0)
+				world.setBlockState(BlockPos.fromLong(pos), stone);
+
+		final Long2ObjectOpenHashMap<IBlockState> expected = scan(world, false);
+		assertTrue(expected.size() < before.size());
+		finish(scanner);
+		assertEquals(expected, scanner.found);
+	}
+
+	@Test
+	public void sectionCopyLocalPalette() {
+		final SyntheticWorld world = new SyntheticWorld(3L);
+		for (int sy = 0; sy < 5; sy++)
+			checkSection(world, 0, sy, 0);
+	}
+
+	@Test
+	public void sectionCopyGlobalPalette() {
+		final SyntheticWorld world = new SyntheticWorld(4L);
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		int i = 0;
+		for (final IBlockState state : Block.BLOCK_STATE_IDS) {
+			if (i == 4096)
+				break;
+			// Only states that survive the ID round trip, the same as chunk storage
+			if (Block.BLOCK_STATE_IDS.getByValue(Block.getStateId(state)) != state)
+				continue;
+			world.setBlockState(pos.setPos(16 + (i & 15), 32 + (i >> 8), 16 + ((i >> 4) & 15)), state);
+			i++;
+		}
+		assertTrue(i > 256);
+		checkSection(world, 1, 2, 1);
+	}
+
+	private static void checkSection(@Nonnull final SyntheticWorld world, final int cx, final int sy,
+			final int cz) {
+		final SectionSnapshot section = SectionSnapshot.copy(world.getAccess(), cx, sy, cz);
+		final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+		for (int y = 0; y < 16; y++)
+			for (int z = 0; z < 16; z++)
+				for (int x = 0; x < 16; x++) {
+					pos.setPos((cx << 4) + x, (sy << 4) + y, (cz << 4) + z);
+					assertSame(pos.toString(), world.getBlockState(pos), section.getBlockState(x, y, z));
+				}
+	}
+
+	@Nonnull
+	private static Long2ObjectOpenHashMap<IBlockState> scan(@Nonnull final SyntheticWorld world,
+			final boolean async) throws InterruptedException {
+		final TestScanner scanner = new TestScanner(new SyntheticWorld.Locus(world, CENTER));
+		scanner.setAsync(async);
+		finish(scanner);
+		return scanner.found;
+	}
+
+	private static void finish(@Nonnull final TestScanner scanner) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		do {
+			scanner.update();
+			if (System.currentTimeMillis() > deadline)
+				throw new AssertionError("Scan did not finish");
+			if (scanner.async)
+				Thread.sleep(1);
+		} while (!scanner.isScanFinished());
+	}
+
+	private static final class TestScanner extends CuboidScanner {
+
+		private final IBlockState lava = Blocks.LAVA.getDefaultState();
+		private final IBlockState ore = Blocks.COAL_ORE.getDefaultState();
+		public final Long2ObjectOpenHashMap<IBlockState> found = new Long2ObjectOpenHashMap<>();
+
+		public TestScanner(@Nonnull final ScanLocus locus) {
+			super(locus, "TestScanner", RANGE, 0);
+		}
+
+		@Override
+		protected boolean interestingBlock(final IBlockState state) {
+			return state == this.lava || state == this.ore;
+		}
+
+		@Override
+		public void blockScan(@Nonnull final IBlockState state, @Nonnull final BlockPos pos,
+				@Nonnull final Random rand) {
+			assertTrue(this.found.put(pos.toLong(), state) == null);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.junit.After;
+import org.junit.Test;
+import org.orecruncher.dsurround.ModOptions;
+import org.orecruncher.dsurround.registry.config.ModConfiguration;
+
+import com.google.common.collect.ImmutableList;
+
+import net.minecraftforge.common.MinecraftForge;
+
+public class RegistryManagerTest {
+
+	private static final int CONFIGS = 3;
+
+	private final boolean parallel = ModOptions.general.enableParallelRegistryLoad;
+
+	private final AtomicInteger decodes = new AtomicInteger();
+	private final Supplier<List<ModConfiguration>> decoder = () -> {
+		this.decodes.incrementAndGet();
+		final ImmutableList.Builder<ModConfiguration> builder = ImmutableList.builder();
+		for (int i = 0; i < CONFIGS; i++)
+			builder.add(new ModConfiguration());
+		return builder.build();
+	};
+
+	@After
+	public void cleanup() {
+		for (int i = 0; i < RegistryManager.REGISTRIES.size(); i++)
+			MinecraftForge.EVENT_BUS.unregister(RegistryManager.REGISTRIES.get(i));
+		RegistryManager.REGISTRIES.clear();
+		ModOptions.general.enableParallelRegistryLoad = this.parallel;
+	}
+
+	@Test
+	public void decodedOncePerLoadSerial() {
+		ModOptions.general.enableParallelRegistryLoad = false;
+		verify();
+	}
+
+	@Test
+	public void decodedOncePerLoadParallel() {
+		ModOptions.general.enableParallelRegistryLoad = true;
+		verify();
+	}
+
+	private void verify() {
+		final CountingRegistry a = new CountingRegistry("a");
+		final CountingRegistry b = new CountingRegistry("b", a);
+		final CountingRegistry c = new CountingRegistry("c");
+
+		for (int i = 1; i <= 3; i++) {
+			RegistryManager.load(this.decoder);
+			assertEquals(i, this.decodes.get());
+			assertEquals(i * CONFIGS, a.configs.get());
+			assertEquals(i * CONFIGS, b.configs.get());
+			assertEquals(i * CONFIGS, c.configs.get());
+		}
+	}
+
+	private static class CountingRegistry extends Registry {
+
+		final AtomicInteger configs = new AtomicInteger();
+
+		CountingRegistry(@Nonnull final String name, @Nonnull final Registry... dependencies) {
+			super(name, dependencies);
+		}
+
+		@Override
+		protected void init(@Nonnull final ModConfiguration cfg) {
+			this.configs.incrementAndGet();
+		}
+	}
+}
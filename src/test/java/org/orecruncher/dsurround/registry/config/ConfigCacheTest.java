@@ -0,0 +1,160 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonElement;
+
+import it.unimi.dsi.fastutil.io.FastByteArrayOutputStream;
+
+public class ConfigCacheTest {
+
+	private static final File DATA = new File("src/main/resources/assets/dsurround/dsurround/data");
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	// Packs the bundled data files the same way ConfigData.load() does
+	@Nonnull
+	private static byte[] pack() throws IOException {
+		final File[] files = DATA.listFiles((dir, name) -> name.endsWith(".json"));
+		assertNotNull("No data directory at " + DATA.getAbsolutePath(), files);
+		Arrays.sort(files);
+
+		final FastByteArrayOutputStream bits = new FastByteArrayOutputStream(16 * 1024);
+		try (final OutputStreamWriter output = new OutputStreamWriter(new GZIPOutputStream(bits),
+				StandardCharsets.UTF_8)) {
+			output.write("[");
+			boolean comma = false;
+			for (final File f : files) {
+				final InputStreamReader reader = new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8);
+				comma = ConfigData.copy(reader, output, f.getName(), comma);
+			}
+			output.write("]");
+		}
+		bits.trim();
+		return bits.array;
+	}
+
+	@Nonnull
+	private static List<ModConfiguration> parse(@Nonnull final byte[] bits) throws IOException {
+		final List<ModConfiguration> result = new ArrayList<>();
+		try (final MCFIterator itr = new MCFIterator(bits)) {
+			while (itr.hasNext()) {
+				final ModConfiguration mcf = itr.next();
+				assertNotNull(mcf);
+				result.add(mcf);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void roundTripMatchesParse() throws Exception {
+		final byte[] bits = pack();
+		final List<ModConfiguration> parsed = parse(bits);
+		assertTrue(parsed.size() > 0);
+
+		final File file = this.folder.newFile("configcache.bin");
+		final byte[] key = ConfigCache.hash(bits);
+		ConfigCache.write(file, key, parsed);
+		final List<ModConfiguration> cached = ConfigCache.read(file, key);
+		assertNotNull("Cache could not be read back", cached);
+
+		compare("data", parsed, cached);
+	}
+
+	@Test
+	public void keyMismatchIgnored() throws Exception {
+		final byte[] bits = pack();
+		final File file = this.folder.newFile("configcache.bin");
+		ConfigCache.write(file, ConfigCache.hash(bits), parse(bits));
+
+		final byte[] other = ConfigCache.hash(new byte[] { 1, 2, 3 });
+		assertEquals(null, ConfigCache.read(file, other));
+	}
+
+	// Walks the config object graph comparing the values of every field
+	private static void compare(@Nonnull final String path, @Nullable final Object expected,
+			@Nullable final Object actual) throws IllegalAccessException {
+		if (expected == null || actual == null) {
+			assertEquals(path, expected, actual);
+		} else if (expected instanceof List) {
+			assertTrue(path, actual instanceof List);
+			final List<?> e = (List<?>) expected;
+			final List<?> a = (List<?>) actual;
+			assertEquals(path + ".size", e.size(), a.size());
+			for (int i = 0; i < e.size(); i++)
+				compare(path + "[" + i + "]", e.get(i), a.get(i));
+		} else if (expected instanceof Map) {
+			assertTrue(path, actual instanceof Map);
+			final Map<?, ?> e = (Map<?, ?>) expected;
+			final Map<?, ?> a = (Map<?, ?>) actual;
+			assertEquals(path + ".size", e.size(), a.size());
+			final Iterator<? extends Map.Entry<?, ?>> ai = a.entrySet().iterator();
+			for (final Map.Entry<?, ?> entry : e.entrySet()) {
+				final Map.Entry<?, ?> other = ai.next();
+				assertEquals(path + " key", entry.getKey(), other.getKey());
+				compare(path + "[" + entry.getKey() + "]", entry.getValue(), other.getValue());
+			}
+		} else if (expected instanceof JsonElement) {
+			assertEquals(path, expected, actual);
+		} else if (expected.getClass().getPackage() == ModConfiguration.class.getPackage()) {
+			assertEquals(path, expected.getClass(), actual.getClass());
+			for (final Field f : expected.getClass().getDeclaredFields()) {
+				if (Modifier.isStatic(f.getModifiers()))
+					continue;
+				f.setAccessible(true);
+				compare(path + "." + f.getName(), f.get(expected), f.get(actual));
+			}
+		} else {
+			assertEquals(path, expected, actual);
+		}
+	}
+}
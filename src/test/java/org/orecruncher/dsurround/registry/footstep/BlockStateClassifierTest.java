@@ -0,0 +1,147 @@
+/* This file is part of Dynamic Surroundings, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) OreCruncher
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.orecruncher.dsurround.registry.footstep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.orecruncher.dsurround.registry.acoustics.AcousticRegistry;
+import org.orecruncher.dsurround.registry.acoustics.IAcoustic;
+import org.orecruncher.dsurround.registry.blockstate.BlockStateMatcher;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+
+/**
+ * Checks the single pass classification against the two pass code it replaced:
+ * resolve every state through the map, then filter the full state set for
+ * missing acoustics and footprints.
+ */
+public class BlockStateClassifierTest {
+
+	private static final IAcoustic[] STONE = new IAcoustic[0];
+	private static final IAcoustic[] GRANITE = new IAcoustic[0];
+	private static final IAcoustic[] WOOL = new IAcoustic[0];
+	private static final IAcoustic[] GRASS = new IAcoustic[0];
+	private static final IAcoustic[] FOLIAGE = new IAcoustic[0];
+	private static final IAcoustic[] SNOW = new IAcoustic[0];
+
+	private static final Predicate<IBlockState> FOOTPRINT = bs -> bs.getMaterial().blocksMovement()
+			&& Block.getStateId(bs) % 3 == 0;
+
+	// Acoustics handed out by the resolver, one per block so that results can be
+	// compared by identity between runs
+	private final Map<Block, IAcoustic[]> resolved = new ConcurrentHashMap<>();
+	private volatile Thread loader;
+	private volatile boolean resolvedOffThread;
+
+	@BeforeClass
+	public static void bootstrap() {
+		Bootstrap.register();
+	}
+
+	@Nonnull
+	private BlockAcousticMap[] createMaps() {
+		final BlockAcousticMap meta = new BlockAcousticMap(state -> {
+			if (Thread.currentThread() != this.loader)
+				this.resolvedOffThread = true;
+			final Block block = state.getBlock();
+			if (Block.getIdFromBlock(block) % 2 != 0)
+				return null;
+			return this.resolved.computeIfAbsent(block, b -> new IAcoustic[0]);
+		});
+		meta.put(BlockStateMatcher.asGeneric(Blocks.STONE.getDefaultState()), STONE);
+		meta.put(BlockStateMatcher.create(Blocks.STONE.getStateFromMeta(1)), GRANITE);
+		meta.put(BlockStateMatcher.asGeneric(Blocks.WOOL.getDefaultState()), WOOL);
+		meta.put(BlockStateMatcher.create(Blocks.GRASS.getDefaultState()), GRASS);
+
+		final BlockAcousticMap foliage = new BlockAcousticMap();
+		foliage.put(BlockStateMatcher.asGeneric(Blocks.TALLGRASS.getDefaultState()), FOLIAGE);
+		foliage.put(BlockStateMatcher.asGeneric(Blocks.SNOW_LAYER.getDefaultState()), SNOW);
+
+		return new BlockAcousticMap[] { meta, foliage };
+	}
+
+	@Nonnull
+	private static Set<IBlockState> allStates() {
+		final Set<IBlockState> result = new HashSet<>();
+		for (final Block block : ForgeRegistries.BLOCKS)
+			result.addAll(block.getBlockState().getValidStates());
+		return result;
+	}
+
+	@Test
+	public void serialMatchesTwoPass() {
+		verify(false);
+	}
+
+	@Test
+	public void parallelMatchesTwoPass() {
+		verify(true);
+	}
+
+	private void verify(final boolean parallel) {
+		this.loader = Thread.currentThread();
+		final Set<IBlockState> states = allStates();
+		assertTrue(states.size() > 0);
+
+		// Old behavior: every state resolved through the map, then filtered
+		final BlockAcousticMap[] reference = createMaps();
+		final Set<IBlockState> missing = new HashSet<>();
+		final Set<IBlockState> footprints = new HashSet<>();
+		for (final IBlockState state : states) {
+			if (reference[0].getBlockAcoustics(state) == AcousticRegistry.EMPTY)
+				missing.add(state);
+			if (FOOTPRINT.test(state))
+				footprints.add(state);
+		}
+
+		final BlockAcousticMap[] maps = createMaps();
+		final BlockStateClassifier classifier = new BlockStateClassifier(maps, FOOTPRINT);
+		classifier.classify(parallel);
+
+		assertFalse("Resolver invoked off the loading thread", this.resolvedOffThread);
+		assertEquals(missing, new HashSet<>(classifier.getMissingAcoustics()));
+		assertEquals(footprints, new HashSet<>(classifier.getFootprintStates()));
+
+		for (final IBlockState state : states)
+			for (int i = 0; i < maps.length; i++)
+				assertSame(state.toString(), reference[i].getBlockAcoustics(state), maps[i].getBlockAcoustics(state));
+	}
+}